@@ -0,0 +1,163 @@
+package com.QueueUp.Backend.config;
+
+import com.QueueUp.Backend.service.MessageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data migrations that Hibernate's ddl-auto cannot express. Each step first checks
+ * whether it still has work to do, so a normal startup only runs cheap reads.
+ * Runs while the context is refreshing, after ddl-auto has updated the schema
+ * (the entityManagerFactory dependency) but before the web server accepts
+ * requests, so no insert can race the sequence move.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class DatabaseMigrations implements InitializingBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseMigrations.class);
+
+    private static final int BACKFILL_BATCH = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public DatabaseMigrations(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        transactionTemplate.executeWithoutResult(status -> {
+            backfillSwipeEdges();
+            backfillConversationKeys();
+            backfillConversationSummaries();
+            moveToPooledSequences();
+            allowPendingAttachments();
+        });
+    }
+
+    // Copies the old user_likes / user_dislikes / user_matches join tables into swipe_edge once.
+    // The old tables are left in place and can be dropped after the deploy.
+    private void backfillSwipeEdges() {
+        if (!tableExists("user_likes") || hasRows("swipe_edge")) return;
+
+        int likes = jdbcTemplate.update("INSERT INTO swipe_edge (swiper_id, target_id, direction, matched, created_at) " +
+                "SELECT liker_id, liked_id, 'LIKE', false, now() FROM user_likes ON CONFLICT DO NOTHING");
+
+        // A pair that was both liked and disliked keeps the like, which is what matching looked at
+        int dislikes = tableExists("user_dislikes") ? jdbcTemplate.update(
+                "INSERT INTO swipe_edge (swiper_id, target_id, direction, matched, created_at) " +
+                "SELECT disliker_id, disliked_id, 'DISLIKE', false, now() FROM user_dislikes ON CONFLICT DO NOTHING") : 0;
+
+        int matches = 0;
+        if (tableExists("user_matches")) {
+            matches = jdbcTemplate.update("INSERT INTO swipe_edge (swiper_id, target_id, direction, matched, created_at) " +
+                    "SELECT user_a_id, user_b_id, 'LIKE', true, now() FROM user_matches ON CONFLICT DO NOTHING");
+            matches += jdbcTemplate.update("UPDATE swipe_edge s SET matched = true FROM user_matches m " +
+                    "WHERE s.swiper_id = m.user_a_id AND s.target_id = m.user_b_id AND s.matched = false");
+        }
+
+        logger.info("Backfilled swipe_edge: {} likes, {} dislikes, {} matched edges", likes, dislikes, matches);
+    }
+
+    // Messages written before Message.conversationKey existed. The old per-direction index is
+    // superseded by idx_message_conversation_created.
+    private void backfillConversationKeys() {
+        if (tableExists("idx_message_pair_created")) {
+            jdbcTemplate.execute("DROP INDEX idx_message_pair_created");
+        }
+        if (!exists("SELECT 1 FROM message WHERE conversation_key IS NULL")) return;
+
+        int updated = jdbcTemplate.update("UPDATE message SET conversation_key = " +
+                "LEAST(sender_id, receiver_id) || '_' || GREATEST(sender_id, receiver_id) WHERE conversation_key IS NULL");
+        logger.info("Backfilled conversation_key on {} messages", updated);
+    }
+
+    // One summary per existing conversation, from its newest message. The snippet comes from
+    // MessageService.snippetOf so backfilled rows read like live ones. Read state was never
+    // recorded, so existing conversations start with nothing unread.
+    private void backfillConversationSummaries() {
+        if (hasRows("conversation_summary") || !hasRows("message")) return;
+
+        String insert = "INSERT INTO conversation_summary (conversation_key, user_low_id, user_high_id, " +
+                "last_message_id, last_sender_id, snippet, last_message_at, unread_low, unread_high) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, 0, 0)";
+        List<Object[]> batch = new ArrayList<>();
+        int[] conversations = {0};
+
+        jdbcTemplate.query("SELECT DISTINCT ON (conversation_key) conversation_key, LEAST(sender_id, receiver_id) AS user_low_id, " +
+                "GREATEST(sender_id, receiver_id) AS user_high_id, id, sender_id, content, created_at, " +
+                "EXISTS (SELECT 1 FROM attachment a WHERE a.message_id = m.id) AS has_attachments " +
+                "FROM message m ORDER BY conversation_key, created_at DESC, id DESC", (ResultSet rs) -> {
+            batch.add(new Object[]{rs.getString("conversation_key"), rs.getLong("user_low_id"), rs.getLong("user_high_id"),
+                    rs.getLong("id"), rs.getLong("sender_id"),
+                    MessageService.snippetOf(rs.getString("content"), rs.getBoolean("has_attachments")),
+                    rs.getTimestamp("created_at")});
+            if (batch.size() == BACKFILL_BATCH) {
+                conversations[0] += flush(insert, batch);
+            }
+        });
+        conversations[0] += flush(insert, batch);
+
+        logger.info("Backfilled {} conversation summaries", conversations[0]);
+    }
+
+    private int flush(String sql, List<Object[]> batch) {
+        if (batch.isEmpty()) return 0;
+        int rows = batch.size();
+        jdbcTemplate.batchUpdate(sql, batch);
+        batch.clear();
+        return rows;
+    }
+
+    // Message and Attachment ids now come from pooled sequences (allocation 50) that ddl-auto creates
+    // starting at 1. Detach the old identity columns and move each sequence past the existing ids.
+    private void moveToPooledSequences() {
+        for (String table : List.of("message", "attachment")) {
+            String sequence = table + "_seq";
+            if (exists("SELECT 1 FROM information_schema.columns WHERE table_schema = current_schema() " +
+                    "AND table_name = '" + table + "' AND column_name = 'id' AND is_identity = 'YES'")) {
+                jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id DROP IDENTITY");
+            }
+
+            // Pooled ids never pass the sequence's last value, an id beyond it predates the sequence
+            if (exists("SELECT 1 FROM " + table + " WHERE id > (SELECT last_value FROM " + sequence + ")")) {
+                jdbcTemplate.queryForObject("SELECT setval('" + sequence + "', (SELECT MAX(id) FROM " + table + ") + 50)",
+                        Long.class);
+                logger.info("Moved {} past the existing {} ids", sequence, table);
+            }
+        }
+    }
+
+    // Pending and failed attachments have no url yet, ddl-auto does not relax existing NOT NULL constraints
+    private void allowPendingAttachments() {
+        if (exists("SELECT 1 FROM information_schema.columns WHERE table_schema = current_schema() " +
+                "AND table_name = 'attachment' AND column_name = 'url' AND is_nullable = 'NO'")) {
+            jdbcTemplate.execute("ALTER TABLE attachment ALTER COLUMN url DROP NOT NULL");
+        }
+    }
+
+    private boolean tableExists(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, table));
+    }
+
+    private boolean hasRows(String table) {
+        return exists("SELECT 1 FROM " + table);
+    }
+
+    private boolean exists(String query) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT EXISTS (" + query + ")", Boolean.class));
+    }
+}
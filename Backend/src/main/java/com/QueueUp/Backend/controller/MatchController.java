@@ -1,11 +1,16 @@
 package com.QueueUp.Backend.controller;
 
+import com.QueueUp.Backend.dto.FeedPageDto;
 import com.QueueUp.Backend.dto.MatchProfileDto;
+import com.QueueUp.Backend.dto.SharedItemsDto;
+import com.QueueUp.Backend.dto.SwipeBatchDto;
+import com.QueueUp.Backend.service.MatchMode;
 import com.QueueUp.Backend.service.MatchService;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -33,11 +38,36 @@ public class MatchController {
         return ResponseEntity.ok(Map.of("success", true));
     }
 
+    // Queued swipes from the client, applied in one transaction
+    @PostMapping("/swipes")
+    public ResponseEntity<?> swipeBatch(@RequestBody SwipeBatchDto body, HttpServletRequest request) {
+        Long currentUserId = (Long) request.getAttribute("userId");
+        List<MatchProfileDto> matches = matchService.swipeBatch(currentUserId,
+                body.getSwipes() != null ? body.getSwipes() : List.of());
+        return ResponseEntity.ok(Map.of("success", true, "matches", matches));
+    }
+
     @GetMapping("/user-profiles")
-    public ResponseEntity<?> getUserProfiles(HttpServletRequest request) {
+    public ResponseEntity<?> getUserProfiles(@RequestParam(required = false) Integer limit,
+                                             @RequestParam(required = false) String cursor,
+                                             @RequestParam(required = false) String mode,
+                                             HttpServletRequest request) {
+        Long currentUserId = (Long) request.getAttribute("userId");
+        FeedPageDto page = matchService.getUserProfiles(currentUserId, limit, cursor, MatchMode.from(mode));
+
+        // nextCursor may be null, which Map.of does not allow
+        Map<String, Object> body = new HashMap<>();
+        body.put("success", true);
+        body.put("users", page.getUsers());
+        body.put("nextCursor", page.getNextCursor());
+        return ResponseEntity.ok(body);
+    }
+
+    @GetMapping("/{userId}/shared")
+    public ResponseEntity<?> getSharedItems(@PathVariable Long userId, HttpServletRequest request) {
         Long currentUserId = (Long) request.getAttribute("userId");
-        List<MatchProfileDto> profiles = matchService.getUserProfiles(currentUserId);
-        return ResponseEntity.ok(Map.of("success", true, "users", profiles));
+        SharedItemsDto shared = matchService.getSharedItems(currentUserId, userId);
+        return ResponseEntity.ok(Map.of("success", true, "shared", shared));
     }
 
     @GetMapping
@@ -1,5 +1,7 @@
 package com.QueueUp.Backend.controller;
 
+import com.QueueUp.Backend.dto.ConversationPageDto;
+import com.QueueUp.Backend.dto.InboxEntryView;
 import com.QueueUp.Backend.dto.SendMessageDto;
 import com.QueueUp.Backend.model.Message;
 import com.QueueUp.Backend.service.MessageService;
@@ -7,6 +9,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -31,15 +34,49 @@ public class MessageController {
         }
     }
 
+    // Newest page first, older pages with ?before=<oldest message id already shown>
     @GetMapping("/conversation/{userId}")
-    public ResponseEntity<?> getConversation(@PathVariable Long userId, HttpServletRequest httpRequest) {
+    public ResponseEntity<?> getConversation(@PathVariable Long userId,
+                                             @RequestParam(required = false) Long before,
+                                             @RequestParam(required = false) Integer limit,
+                                             HttpServletRequest httpRequest) {
         try {
             Long currentUserId = (Long) httpRequest.getAttribute("userId");
-            List<Message> messages = messageService.getConversation(currentUserId, userId);
+            ConversationPageDto page = messageService.getConversation(currentUserId, userId, before, limit);
 
-            return ResponseEntity.ok(Map.of("success", true, "messages", messages));
+            // nextBefore may be null, which Map.of does not allow
+            Map<String, Object> body = new HashMap<>();
+            body.put("success", true);
+            body.put("messages", page.getMessages());
+            body.put("nextBefore", page.getNextBefore());
+            return ResponseEntity.ok(body);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(500).body(Map.of("success", false, "message", "Internal server error"));
         }
     }
-}
\ No newline at end of file
+
+    // Last message and unread count of every conversation
+    @GetMapping("/inbox")
+    public ResponseEntity<?> getInbox(HttpServletRequest httpRequest) {
+        try {
+            Long currentUserId = (Long) httpRequest.getAttribute("userId");
+            List<InboxEntryView> conversations = messageService.getInbox(currentUserId);
+            return ResponseEntity.ok(Map.of("success", true, "conversations", conversations));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(Map.of("success", false, "message", "Internal server error"));
+        }
+    }
+
+    @PostMapping("/conversation/{userId}/read")
+    public ResponseEntity<?> markRead(@PathVariable Long userId, HttpServletRequest httpRequest) {
+        try {
+            Long currentUserId = (Long) httpRequest.getAttribute("userId");
+            messageService.markRead(currentUserId, userId);
+            return ResponseEntity.ok(Map.of("success", true));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(Map.of("success", false, "message", "Internal server error"));
+        }
+    }
+}
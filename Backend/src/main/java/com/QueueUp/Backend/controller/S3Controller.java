@@ -3,31 +3,104 @@ package com.QueueUp.Backend.controller;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
-import software.amazon.awssdk.services.s3.model.GetObjectRequest;
-import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+import com.QueueUp.Backend.model.AttachmentBlob;
+import com.QueueUp.Backend.model.BlobStorage;
+import com.QueueUp.Backend.service.AttachmentBlobStore;
+import com.QueueUp.Backend.service.PresignedUrlCache;
+import com.QueueUp.Backend.service.S3MultipartUploads;
+import com.QueueUp.Backend.service.S3StreamUploader;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/api/uploads/s3")
 public class S3Controller {
 
+    private static final int MAX_BATCH_KEYS = 100;
+
     private final S3Presigner s3Presigner;
+    private final S3StreamUploader s3StreamUploader;
+    private final S3MultipartUploads s3MultipartUploads;
+    private final PresignedUrlCache presignedUrlCache;
+    private final AttachmentBlobStore attachmentBlobStore;
 
     @Value("${aws.s3-bucket}")
     private String bucketName;
 
-    public S3Controller(S3Presigner s3Presigner) {
+    public S3Controller(S3Presigner s3Presigner, S3StreamUploader s3StreamUploader,
+                        S3MultipartUploads s3MultipartUploads, PresignedUrlCache presignedUrlCache,
+                        AttachmentBlobStore attachmentBlobStore) {
         this.s3Presigner = s3Presigner;
+        this.s3StreamUploader = s3StreamUploader;
+        this.s3MultipartUploads = s3MultipartUploads;
+        this.presignedUrlCache = presignedUrlCache;
+        this.attachmentBlobStore = attachmentBlobStore;
+    }
+
+    // Clients hash a file before uploading it, content the user already uploaded or was sent
+    // is attached by reference and never sent again
+    @PostMapping("/lookup")
+    public ResponseEntity<?> lookupBlob(@RequestBody Map<String, String> body,
+                                        HttpServletRequest request) {
+        Long userId = (Long) request.getAttribute("userId");
+        return attachmentBlobStore.findFor(userId, body.get("sha256"))
+                .<ResponseEntity<?>>map(blob -> ResponseEntity.ok(Map.of(
+                        "found", true,
+                        "key", blob.getObjectKey(),
+                        "url", blob.getUrl()
+                )))
+                .orElseGet(() -> ResponseEntity.ok(Map.of("found", false)));
+    }
+
+    // Raw file bytes as the request body, streamed to S3 without buffering the whole file.
+    // The returned key is the handle sendMessage takes as an attachment. The body is hashed
+    // on the way through, and if that content is already stored the new copy is dropped.
+    @PostMapping("/stream")
+    public ResponseEntity<?> streamUpload(@RequestParam String name,
+                                          HttpServletRequest request) {
+        Long userId = (Long) request.getAttribute("userId");
+        String safeName = name.replaceAll("[/\\\\]", "_");
+        String type = request.getContentType() != null ? request.getContentType() : "application/octet-stream";
+        String key = s3StreamUploader.keyFor(userId, safeName);
+
+        try {
+            MessageDigest digest = AttachmentBlobStore.sha256();
+            long size = s3StreamUploader.upload(new DigestInputStream(request.getInputStream(), digest), key, type);
+
+            AttachmentBlob blob = attachmentBlobStore.register(userId, AttachmentBlobStore.hex(digest), BlobStorage.S3,
+                    key, s3StreamUploader.publicUrl(key), size);
+            boolean deduplicated = !blob.getObjectKey().equals(key);
+            if (deduplicated) {
+                s3StreamUploader.delete(key);
+            }
+
+            return ResponseEntity.ok(Map.of(
+                    "key", blob.getObjectKey(),
+                    "url", blob.getUrl(),
+                    "name", safeName,
+                    "size", size,
+                    "sha256", blob.getSha256(),
+                    "deduplicated", deduplicated
+            ));
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError().body(Map.of("error", "Upload was interrupted"));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(Map.of("error", "Could not upload file"));
+        }
     }
 
     @PostMapping("/presign")
     public ResponseEntity<?> generatePresignedUrl(@RequestBody Map<String, String> body,
-                                                  jakarta.servlet.http.HttpServletRequest request) {
+                                                  HttpServletRequest request) {
         String name = body.get("name");
         String type = body.get("type");
         Long userId = (Long) request.getAttribute("userId");
@@ -36,7 +109,7 @@ public class S3Controller {
             return ResponseEntity.badRequest().body(Map.of("error", "name and type required"));
         }
 
-        String key = userId + "/chat_attachments/" + System.currentTimeMillis() + "_" + name;
+        String key = s3StreamUploader.keyFor(userId, name);
 
         try {
             PutObjectRequest objectRequest = PutObjectRequest.builder()
@@ -61,28 +134,147 @@ public class S3Controller {
     @PostMapping("/presign-download")
     public ResponseEntity<?> generatePresignedDownloadUrl(@RequestBody Map<String, Object> body) {
         String key = (String) body.get("key");
-        int expiresIn = Math.min((Integer) body.getOrDefault("expiresIn", 60), 900);
+        Integer expiresIn = expiresIn(body);
 
         if (key == null) {
             return ResponseEntity.badRequest().body(Map.of("error", "key required"));
         }
+        if (expiresIn == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "expiresIn must be a positive number of seconds"));
+        }
 
         try {
-            GetObjectRequest objectRequest = GetObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(key)
-                    .build();
+            return ResponseEntity.ok(Map.of("url", presignedUrlCache.urlFor(key, expiresIn)));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(Map.of("error", "Could not generate presigned URL"));
+        }
+    }
 
-            GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
-                    .signatureDuration(Duration.ofSeconds(expiresIn))
-                    .getObjectRequest(objectRequest)
-                    .build();
+    // Signs every attachment of an opened chat in one request, URLs come from the cache where possible
+    @PostMapping("/presign-download/batch")
+    public ResponseEntity<?> generatePresignedDownloadUrls(@RequestBody Map<String, Object> body) {
+        Integer expiresIn = expiresIn(body);
 
-            String url = s3Presigner.presignGetObject(presignRequest).url().toString();
+        if (!(body.get("keys") instanceof List<?> rawKeys) || rawKeys.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "keys required"));
+        }
+        if (expiresIn == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "expiresIn must be a positive number of seconds"));
+        }
+        if (rawKeys.size() > MAX_BATCH_KEYS) {
+            return ResponseEntity.badRequest().body(Map.of("error", "at most " + MAX_BATCH_KEYS + " keys per request"));
+        }
 
-            return ResponseEntity.ok(Map.of("url", url));
+        try {
+            List<String> keys = rawKeys.stream().map(String::valueOf).distinct().toList();
+            return ResponseEntity.ok(Map.of("urls", presignedUrlCache.urlsFor(keys, expiresIn)));
         } catch (Exception e) {
-            return ResponseEntity.internalServerError().body(Map.of("error", "Could not generate presigned URL"));
+            return ResponseEntity.internalServerError().body(Map.of("error", "Could not generate presigned URLs"));
+        }
+    }
+
+    // Download URL lifetime in seconds, default 60 and capped at 15 minutes; null if it is not a positive number
+    private static Integer expiresIn(Map<String, Object> body) {
+        Object value = body.getOrDefault("expiresIn", 60);
+        if (!(value instanceof Number number) || number.longValue() <= 0) return null;
+        return (int) Math.min(number.longValue(), 900);
+    }
+
+    // Multipart upload for large files: create, presign parts, PUT them to S3 in parallel, complete
+    @PostMapping("/multipart/create")
+    public ResponseEntity<?> createMultipartUpload(@RequestBody Map<String, String> body,
+                                                   HttpServletRequest request) {
+        String name = body.get("name");
+        String type = body.get("type");
+        Long userId = (Long) request.getAttribute("userId");
+
+        if (name == null || type == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "name and type required"));
+        }
+
+        try {
+            S3MultipartUploads.Started started = s3MultipartUploads.create(userId, name, type);
+            return ResponseEntity.ok(Map.of(
+                    "key", started.key(),
+                    "uploadId", started.uploadId(),
+                    "partSize", started.partSize()
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(Map.of("error", "Could not start upload"));
+        }
+    }
+
+    @PostMapping("/multipart/presign-parts")
+    public ResponseEntity<?> presignParts(@RequestBody Map<String, Object> body,
+                                          HttpServletRequest request) {
+        String key = (String) body.get("key");
+        String uploadId = (String) body.get("uploadId");
+        Long userId = (Long) request.getAttribute("userId");
+
+        if (key == null || uploadId == null || !(body.get("partNumbers") instanceof List<?> numbers)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "key, uploadId and partNumbers required"));
+        }
+
+        try {
+            List<Integer> partNumbers = numbers.stream().map(n -> ((Number) n).intValue()).toList();
+            return ResponseEntity.ok(Map.of("urls", s3MultipartUploads.presignParts(userId, key, uploadId, partNumbers)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Could not presign parts"));
+        }
+    }
+
+    // Parts S3 already has, so a resumed client only sends the missing ones
+    @GetMapping("/multipart/parts")
+    public ResponseEntity<?> listParts(@RequestParam String key, @RequestParam String uploadId,
+                                       HttpServletRequest request) {
+        Long userId = (Long) request.getAttribute("userId");
+        try {
+            return ResponseEntity.ok(Map.of("parts", s3MultipartUploads.listParts(userId, key, uploadId)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Could not list parts"));
+        }
+    }
+
+    @PostMapping("/multipart/complete")
+    public ResponseEntity<?> completeMultipartUpload(@RequestBody Map<String, Object> body,
+                                                     HttpServletRequest request) {
+        String key = (String) body.get("key");
+        String uploadId = (String) body.get("uploadId");
+        Long userId = (Long) request.getAttribute("userId");
+
+        if (key == null || uploadId == null || !(body.get("parts") instanceof List<?> rawParts)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "key, uploadId and parts required"));
+        }
+
+        try {
+            List<S3MultipartUploads.UploadedPart> parts = rawParts.stream()
+                    .map(p -> (Map<?, ?>) p)
+                    .map(p -> new S3MultipartUploads.UploadedPart(((Number) p.get("partNumber")).intValue(),
+                            (String) p.get("eTag")))
+                    .toList();
+            String url = s3MultipartUploads.complete(userId, key, uploadId, parts);
+            return ResponseEntity.ok(Map.of("key", key, "url", url));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(Map.of("error", "Could not complete upload"));
+        }
+    }
+
+    @PostMapping("/multipart/abort")
+    public ResponseEntity<?> abortMultipartUpload(@RequestBody Map<String, String> body,
+                                                  HttpServletRequest request) {
+        String key = body.get("key");
+        String uploadId = body.get("uploadId");
+        Long userId = (Long) request.getAttribute("userId");
+
+        if (key == null || uploadId == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "key and uploadId required"));
+        }
+
+        try {
+            s3MultipartUploads.abort(userId, key, uploadId);
+            return ResponseEntity.ok(Map.of("success", true));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(Map.of("error", "Could not abort upload"));
         }
     }
-}
\ No newline at end of file
+}
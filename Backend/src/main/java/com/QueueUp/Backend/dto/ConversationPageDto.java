@@ -0,0 +1,19 @@
+package com.QueueUp.Backend.dto;
+
+import com.QueueUp.Backend.model.Message;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConversationPageDto {
+    // Oldest first, ready to be prepended to what the client already shows
+    private List<Message> messages;
+
+    // Pass as ?before= to load older messages, null when the start of the conversation is reached
+    private Long nextBefore;
+}
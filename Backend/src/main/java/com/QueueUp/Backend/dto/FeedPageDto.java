@@ -0,0 +1,17 @@
+package com.QueueUp.Backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeedPageDto {
+    private List<MatchProfileDto> users;
+
+    // Opaque token for the next page, null when the feed is exhausted
+    private String nextCursor;
+}
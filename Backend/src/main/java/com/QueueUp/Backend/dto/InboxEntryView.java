@@ -0,0 +1,15 @@
+package com.QueueUp.Backend.dto;
+
+import java.time.LocalDateTime;
+
+// One conversation in the inbox, seen from the current user's side
+public record InboxEntryView(Long otherUserId,
+                             String name,
+                             String image,
+                             Boolean isBot,
+                             Long lastMessageId,
+                             Long lastSenderId,
+                             String snippet,
+                             LocalDateTime lastMessageAt,
+                             Integer unreadCount) {
+}
@@ -1,5 +1,6 @@
 package com.QueueUp.Backend.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -20,9 +21,14 @@ public class MatchProfileDto {
     private int score;
     private Boolean isBot;
 
+    // Left out of the swipe feed and fetched per card from /api/matches/{userId}/shared
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private List<ItemDto> commonArtists;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private List<ItemDto> commonTracks;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private List<ItemDto> commonSaved;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private List<ItemDto> commonFollowed;
 
     @Data
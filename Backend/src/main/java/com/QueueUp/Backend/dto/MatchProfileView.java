@@ -0,0 +1,5 @@
+package com.QueueUp.Backend.dto;
+
+// Profile columns of a match, projected straight from app_user without loading the User entity
+public record MatchProfileView(Long id, String name, String image, Integer age, String bio, Boolean isBot) {
+}
@@ -0,0 +1,11 @@
+package com.QueueUp.Backend.dto;
+
+import com.QueueUp.Backend.model.AttachmentCategory;
+
+// A pending attachment with the ids needed to tell both users it failed
+public record PendingAttachmentView(Long attachmentId,
+                                    Long messageId,
+                                    Long senderId,
+                                    Long receiverId,
+                                    AttachmentCategory category) {
+}
@@ -0,0 +1,18 @@
+package com.QueueUp.Backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Music two users have in common, expanded on demand for the card being viewed
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SharedItemsDto {
+    private List<MatchProfileDto.ItemDto> commonArtists;
+    private List<MatchProfileDto.ItemDto> commonTracks;
+    private List<MatchProfileDto.ItemDto> commonSaved;
+    private List<MatchProfileDto.ItemDto> commonFollowed;
+}
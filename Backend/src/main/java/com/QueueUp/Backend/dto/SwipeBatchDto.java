@@ -0,0 +1,17 @@
+package com.QueueUp.Backend.dto;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class SwipeBatchDto {
+    // Applied in order, the first swipe on a user wins
+    private List<SwipeInput> swipes;
+
+    @Data
+    public static class SwipeInput {
+        private Long userId;
+        // "right" or "left"
+        private String direction;
+    }
+}
@@ -0,0 +1,5 @@
+package com.QueueUp.Backend.dto;
+
+// One artist or track held by userId, as read for a taste profile
+public record TasteItemView(Long userId, String spotifyId, String name, String imageUrl) {
+}
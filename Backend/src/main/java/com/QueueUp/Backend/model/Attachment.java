@@ -5,16 +5,20 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
+// Deduplicated uploads share an object key, derivatives look up an existing thumbnail by it
+@Table(indexes = @Index(name = "idx_attachment_key", columnList = "key"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Attachment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence instead of IDENTITY so inserts can be JDBC-batched, one nextval per 50 rows
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "attachment_seq")
+    @SequenceGenerator(name = "attachment_seq", sequenceName = "attachment_seq", allocationSize = 50)
     private Long id;
 
-    @Column(nullable = false)
+    // Null while the upload is pending or after it failed
     private String url;
 
     @Column(nullable = false)
@@ -31,6 +35,14 @@ public class Attachment {
     @Column(nullable = false)
     private AttachmentCategory category;
 
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16, columnDefinition = "varchar(16) default 'READY'")
+    private AttachmentStatus status = AttachmentStatus.READY;
+
+    // Small previews for chat bubbles, filled in by AttachmentDerivatives
+    private String thumbnailUrl;
+    private String posterUrl;
+
     // The link back to the Message
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "message_id")
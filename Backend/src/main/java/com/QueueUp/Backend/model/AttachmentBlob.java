@@ -0,0 +1,38 @@
+package com.QueueUp.Backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+// One stored object per distinct file content. Attachments with the same SHA-256 reuse the object
+// instead of uploading it again (see AttachmentBlobStore). Only hashes the server computed itself
+// are recorded, so a client cannot register someone else's content under a hash.
+@Entity
+@Table(name = "attachment_blob", indexes = {
+        @Index(name = "idx_attachment_blob_object_key", columnList = "objectKey", unique = true)
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttachmentBlob {
+
+    // Lowercase hex SHA-256 of the file bytes
+    @Id
+    @Column(length = 64)
+    private String sha256;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private BlobStorage storage;
+
+    // S3 key or Cloudinary public id
+    @Column(nullable = false)
+    private String objectKey;
+
+    @Column(nullable = false)
+    private String url;
+
+    private Long size;
+
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,21 @@
+package com.QueueUp.Backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+// A user's right to attach a stored blob by reference: they uploaded its bytes or were sent it.
+// Dedup lookups only answer for blobs the caller holds a reference to, so knowing a hash is not
+// enough to get at someone else's file.
+@Entity
+@Table(name = "attachment_blob_ref")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttachmentBlobRef {
+
+    @EmbeddedId
+    private AttachmentBlobRefId id;
+
+    private LocalDateTime createdAt;
+}
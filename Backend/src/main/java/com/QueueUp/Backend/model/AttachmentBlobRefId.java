@@ -0,0 +1,21 @@
+package com.QueueUp.Backend.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+import java.io.Serializable;
+
+// Composite key of a blob reference: which user may attach which content
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttachmentBlobRefId implements Serializable {
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "sha256", length = 64)
+    private String sha256;
+}
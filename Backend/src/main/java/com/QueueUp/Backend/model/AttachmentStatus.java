@@ -0,0 +1,14 @@
+package com.QueueUp.Backend.model;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+// Upload state of an attachment. Attachments sent as data URIs start PENDING until
+// AttachmentUploadPipeline has stored them; everything else is READY on insert.
+public enum AttachmentStatus {
+    PENDING, READY, FAILED;
+
+    @JsonValue
+    public String toValue() {
+        return this.name().toLowerCase();
+    }
+}
@@ -0,0 +1,6 @@
+package com.QueueUp.Backend.model;
+
+// Where an AttachmentBlob's object lives
+public enum BlobStorage {
+    S3, CLOUDINARY
+}
@@ -0,0 +1,44 @@
+package com.QueueUp.Backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+// One row per conversation, kept up to date in the same transaction as every message insert
+// (see ConversationSummaryRepository.recordMessage). Unread counts are per side of the pair.
+@Entity
+@Table(name = "conversation_summary", indexes = {
+        @Index(name = "idx_conversation_summary_low", columnList = "userLowId, lastMessageAt"),
+        @Index(name = "idx_conversation_summary_high", columnList = "userHighId, lastMessageAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConversationSummary {
+
+    // Same value as Message.conversationKey
+    @Id
+    @Column(length = 64)
+    private String conversationKey;
+
+    @Column(nullable = false)
+    private Long userLowId;
+
+    @Column(nullable = false)
+    private Long userHighId;
+
+    private Long lastMessageId;
+    private Long lastSenderId;
+
+    @Column(length = 200)
+    private String snippet;
+
+    private LocalDateTime lastMessageAt;
+
+    // Messages the low / high user has not read yet
+    @Column(nullable = false, columnDefinition = "integer default 0")
+    private Integer unreadLow = 0;
+
+    @Column(nullable = false, columnDefinition = "integer default 0")
+    private Integer unreadHigh = 0;
+}
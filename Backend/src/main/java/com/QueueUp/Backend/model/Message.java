@@ -1,5 +1,6 @@
 package com.QueueUp.Backend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.*;
@@ -8,13 +9,17 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+// Every conversation read is one range scan: equality on the key, then newest first
+@Table(indexes = @Index(name = "idx_message_conversation_created", columnList = "conversationKey, createdAt, id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Message {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence instead of IDENTITY so inserts can be JDBC-batched, one nextval per 50 rows
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "message_seq")
+    @SequenceGenerator(name = "message_seq", sequenceName = "message_seq", allocationSize = 50)
     @JsonProperty("_id")
     private Long id;
 
@@ -33,6 +38,10 @@ public class Message {
         return sender != null ? sender.getId() : null;
     }
 
+    // Same value for both directions of a pair, set on insert (see conversationKey(Long, Long))
+    @JsonIgnore
+    private String conversationKey;
+
     // messages
     @Column(columnDefinition = "TEXT")
     private String content;
@@ -55,5 +64,11 @@ public class Message {
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
+        conversationKey = conversationKey(sender.getId(), receiver.getId());
+    }
+
+    // "<smaller id>_<larger id>", the backfill in DatabaseMigrations builds the same string
+    public static String conversationKey(Long userA, Long userB) {
+        return Math.min(userA, userB) + "_" + Math.max(userA, userB);
     }
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.QueueUp.Backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+// A socket event written in the same transaction as the change it announces,
+// delivered by OutboxDispatcher only once that transaction has committed
+@Entity
+@Table(name = "outbox_event", indexes = @Index(name = "idx_outbox_event_pending", columnList = "dispatchedAt, id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long recipientId;
+
+    @Column(nullable = false)
+    private String eventType;
+
+    // Socket payload, already serialized to JSON
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    private LocalDateTime createdAt;
+
+    // Null until delivered
+    private LocalDateTime dispatchedAt;
+
+    // Dispatcher instance holding the delivery lease, other instances skip the row until it expires
+    @Column(length = 64)
+    private String claimedBy;
+
+    private LocalDateTime claimedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
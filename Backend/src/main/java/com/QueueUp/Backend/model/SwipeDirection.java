@@ -0,0 +1,12 @@
+package com.QueueUp.Backend.model;
+
+public enum SwipeDirection {
+    LIKE, DISLIKE;
+
+    // Accepts the client's "right"/"left" as well as the stored names, null for anything else
+    public static SwipeDirection from(String value) {
+        if ("right".equalsIgnoreCase(value) || "like".equalsIgnoreCase(value)) return LIKE;
+        if ("left".equalsIgnoreCase(value) || "dislike".equalsIgnoreCase(value)) return DISLIKE;
+        return null;
+    }
+}
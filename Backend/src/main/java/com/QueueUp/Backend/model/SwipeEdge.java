@@ -0,0 +1,32 @@
+package com.QueueUp.Backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+// One row per swipe. The primary key (swiper_id, target_id) also serves the reciprocal
+// lookup, and both rows of a mutual like carry matched = true.
+@Entity
+@Table(name = "swipe_edge")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SwipeEdge {
+
+    @EmbeddedId
+    private SwipeEdgeId id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private SwipeDirection direction;
+
+    @Column(nullable = false, columnDefinition = "boolean default false")
+    private Boolean matched = false;
+
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,21 @@
+package com.QueueUp.Backend.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+import java.io.Serializable;
+
+// Composite key of a swipe: who swiped on whom
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SwipeEdgeId implements Serializable {
+
+    @Column(name = "swiper_id")
+    private Long swiperId;
+
+    @Column(name = "target_id")
+    private Long targetId;
+}
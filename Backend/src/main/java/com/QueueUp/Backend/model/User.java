@@ -15,7 +15,7 @@ import java.util.Set;
 @AllArgsConstructor
 
 // Prevent infinite recursion in Lombok equals/hashCode
-@EqualsAndHashCode(exclude = {"likes", "dislikes", "matches", "topArtists", "topTracks", "savedTracks", "followedArtists"})
+@EqualsAndHashCode(exclude = {"topArtists", "topTracks", "savedTracks", "followedArtists"})
 public class User {
 
     @Id
@@ -93,35 +93,8 @@ public class User {
     )
     private Set<Artist> followedArtists = new HashSet<>();
 
-
     // SOCIAL GRAPH
-
-    @JsonIgnore
-    @ManyToMany
-    @JoinTable(
-            name = "user_likes",
-            joinColumns = @JoinColumn(name = "liker_id"),
-            inverseJoinColumns = @JoinColumn(name = "liked_id")
-    )
-    private Set<User> likes = new HashSet<>();
-
-    @JsonIgnore
-    @ManyToMany
-    @JoinTable(
-            name = "user_dislikes",
-            joinColumns = @JoinColumn(name = "disliker_id"),
-            inverseJoinColumns = @JoinColumn(name = "disliked_id")
-    )
-    private Set<User> dislikes = new HashSet<>();
-
-    @JsonIgnore
-    @ManyToMany
-    @JoinTable(
-            name = "user_matches",
-            joinColumns = @JoinColumn(name = "user_a_id"),
-            inverseJoinColumns = @JoinColumn(name = "user_b_id")
-    )
-    private Set<User> matches = new HashSet<>();
+    // Likes, dislikes and matches live in the swipe_edge table (see SwipeEdge)
 
     // TIMESTAMPS
     private LocalDateTime createdAt;
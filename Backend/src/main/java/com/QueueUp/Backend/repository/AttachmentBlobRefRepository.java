@@ -0,0 +1,25 @@
+package com.QueueUp.Backend.repository;
+
+import com.QueueUp.Backend.model.AttachmentBlobRef;
+import com.QueueUp.Backend.model.AttachmentBlobRefId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AttachmentBlobRefRepository extends JpaRepository<AttachmentBlobRef, AttachmentBlobRefId> {
+
+    @Modifying
+    @Query(value = "INSERT INTO attachment_blob_ref (user_id, sha256, created_at) " +
+            "VALUES (:userId, :sha256, now()) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int grant(@Param("userId") Long userId, @Param("sha256") String sha256);
+
+    // Same, for the blob stored under an object key; no-op when the key is not a registered blob
+    @Modifying
+    @Query(value = "INSERT INTO attachment_blob_ref (user_id, sha256, created_at) " +
+            "SELECT :userId, sha256, now() FROM attachment_blob WHERE object_key = :objectKey " +
+            "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int grantByObjectKey(@Param("userId") Long userId, @Param("objectKey") String objectKey);
+}
@@ -0,0 +1,38 @@
+package com.QueueUp.Backend.repository;
+
+import com.QueueUp.Backend.model.AttachmentBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface AttachmentBlobRepository extends JpaRepository<AttachmentBlob, String> {
+
+    // Two users uploading the same file at once both try to register it, the first insert wins
+    @Modifying
+    @Query(value = "INSERT INTO attachment_blob (sha256, storage, object_key, url, size, created_at) " +
+            "VALUES (:sha256, :storage, :objectKey, :url, :size, now()) " +
+            "ON CONFLICT (sha256) DO NOTHING",
+            nativeQuery = true)
+    int register(@Param("sha256") String sha256,
+                 @Param("storage") String storage,
+                 @Param("objectKey") String objectKey,
+                 @Param("url") String url,
+                 @Param("size") Long size);
+
+    Optional<AttachmentBlob> findByObjectKey(String objectKey);
+
+    // The blob, only if the user uploaded it or was sent it
+    @Query("SELECT b FROM AttachmentBlob b WHERE b.sha256 = :sha256 AND EXISTS " +
+            "(SELECT r FROM AttachmentBlobRef r WHERE r.id.userId = :userId AND r.id.sha256 = b.sha256)")
+    Optional<AttachmentBlob> findReferenced(@Param("userId") Long userId, @Param("sha256") String sha256);
+
+    @Query("SELECT b FROM AttachmentBlob b WHERE b.objectKey = :objectKey AND EXISTS " +
+            "(SELECT r FROM AttachmentBlobRef r WHERE r.id.userId = :userId AND r.id.sha256 = b.sha256)")
+    Optional<AttachmentBlob> findReferencedByObjectKey(@Param("userId") Long userId,
+                                                       @Param("objectKey") String objectKey);
+}
@@ -0,0 +1,44 @@
+package com.QueueUp.Backend.repository;
+
+import com.QueueUp.Backend.dto.PendingAttachmentView;
+import com.QueueUp.Backend.model.Attachment;
+import com.QueueUp.Backend.model.AttachmentStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AttachmentRepository extends JpaRepository<Attachment, Long> {
+
+    // Only moves a pending attachment, returns 0 if it was already resolved
+    @Modifying
+    @Query("UPDATE Attachment a SET a.status = :status, a.url = :url, a.key = :key, " +
+            "a.thumbnailUrl = :thumbnailUrl, a.posterUrl = :posterUrl " +
+            "WHERE a.id = :id AND a.status = com.QueueUp.Backend.model.AttachmentStatus.PENDING")
+    int resolvePending(@Param("id") Long id,
+                       @Param("status") AttachmentStatus status,
+                       @Param("url") String url,
+                       @Param("key") String key,
+                       @Param("thumbnailUrl") String thumbnailUrl,
+                       @Param("posterUrl") String posterUrl);
+
+    @Modifying
+    @Query("UPDATE Attachment a SET a.thumbnailUrl = :thumbnailUrl WHERE a.id = :id")
+    int setThumbnailUrl(@Param("id") Long id, @Param("thumbnailUrl") String thumbnailUrl);
+
+    Optional<Attachment> findFirstByKeyAndThumbnailUrlIsNotNull(String key);
+
+    // Attachments still pending from messages sent before the cutoff, oldest first
+    @Query("SELECT new com.QueueUp.Backend.dto.PendingAttachmentView(a.id, m.id, m.sender.id, m.receiver.id, a.category) " +
+            "FROM Attachment a JOIN a.message m " +
+            "WHERE a.status = com.QueueUp.Backend.model.AttachmentStatus.PENDING AND m.createdAt < :cutoff " +
+            "ORDER BY a.id")
+    List<PendingAttachmentView> findPendingSentBefore(@Param("cutoff") LocalDateTime cutoff, Pageable page);
+}
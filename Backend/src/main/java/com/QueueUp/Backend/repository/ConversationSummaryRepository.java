@@ -0,0 +1,63 @@
+package com.QueueUp.Backend.repository;
+
+import com.QueueUp.Backend.dto.InboxEntryView;
+import com.QueueUp.Backend.model.ConversationSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ConversationSummaryRepository extends JpaRepository<ConversationSummary, String> {
+
+    // The incoming message sorts after the current last message of the summary
+    String NEWER = "(EXCLUDED.last_message_at, EXCLUDED.last_message_id) > " +
+            "(conversation_summary.last_message_at, conversation_summary.last_message_id)";
+
+    // Upsert for a newly inserted message: bumps the receiver's unread count and moves the last-message
+    // fields forward. Concurrent messages of one conversation serialize on the row. Newer means a later
+    // (created_at, id): pooled sequence ids are not monotonic across instances, so the id only breaks ties.
+    @Modifying
+    @Query(value = "INSERT INTO conversation_summary (conversation_key, user_low_id, user_high_id, last_message_id, " +
+            "last_sender_id, snippet, last_message_at, unread_low, unread_high) " +
+            "VALUES (:conversationKey, :userLowId, :userHighId, :messageId, :senderId, :snippet, :createdAt, " +
+            "CASE WHEN :receiverId = :userLowId THEN 1 ELSE 0 END, CASE WHEN :receiverId = :userHighId THEN 1 ELSE 0 END) " +
+            "ON CONFLICT (conversation_key) DO UPDATE SET " +
+            "unread_low = conversation_summary.unread_low + EXCLUDED.unread_low, " +
+            "unread_high = conversation_summary.unread_high + EXCLUDED.unread_high, " +
+            "last_message_id = CASE WHEN " + NEWER + " THEN EXCLUDED.last_message_id ELSE conversation_summary.last_message_id END, " +
+            "last_sender_id = CASE WHEN " + NEWER + " THEN EXCLUDED.last_sender_id ELSE conversation_summary.last_sender_id END, " +
+            "snippet = CASE WHEN " + NEWER + " THEN EXCLUDED.snippet ELSE conversation_summary.snippet END, " +
+            "last_message_at = CASE WHEN " + NEWER + " THEN EXCLUDED.last_message_at ELSE conversation_summary.last_message_at END",
+            nativeQuery = true)
+    void recordMessage(@Param("conversationKey") String conversationKey,
+                       @Param("userLowId") Long userLowId,
+                       @Param("userHighId") Long userHighId,
+                       @Param("messageId") Long messageId,
+                       @Param("senderId") Long senderId,
+                       @Param("receiverId") Long receiverId,
+                       @Param("snippet") String snippet,
+                       @Param("createdAt") LocalDateTime createdAt);
+
+    // The whole inbox in one query, newest conversation first
+    @Query("SELECT new com.QueueUp.Backend.dto.InboxEntryView(u.id, u.name, u.image, u.isBot, " +
+            "s.lastMessageId, s.lastSenderId, s.snippet, s.lastMessageAt, " +
+            "CASE WHEN s.userLowId = :userId THEN s.unreadLow ELSE s.unreadHigh END) " +
+            "FROM ConversationSummary s JOIN User u " +
+            "ON u.id = CASE WHEN s.userLowId = :userId THEN s.userHighId ELSE s.userLowId END " +
+            "WHERE s.userLowId = :userId OR s.userHighId = :userId " +
+            "ORDER BY s.lastMessageAt DESC")
+    List<InboxEntryView> findInbox(@Param("userId") Long userId);
+
+    // Resets only the caller's side of the counter
+    @Modifying
+    @Query("UPDATE ConversationSummary s SET " +
+            "s.unreadLow = CASE WHEN s.userLowId = :userId THEN 0 ELSE s.unreadLow END, " +
+            "s.unreadHigh = CASE WHEN s.userHighId = :userId THEN 0 ELSE s.unreadHigh END " +
+            "WHERE s.conversationKey = :conversationKey")
+    int markRead(@Param("conversationKey") String conversationKey, @Param("userId") Long userId);
+}
@@ -0,0 +1,39 @@
+package com.QueueUp.Backend.repository;
+
+import com.QueueUp.Backend.dto.MatchProfileView;
+import com.QueueUp.Backend.dto.TasteItemView;
+import com.QueueUp.Backend.model.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+// Read model for match profiles: DTO projections only, one query per shape regardless of how many users are asked for
+@Repository
+public interface MatchProfileRepository extends JpaRepository<User, Long> {
+
+    @Query("SELECT new com.QueueUp.Backend.dto.MatchProfileView(u.id, u.name, u.image, u.age, u.bio, u.isBot) " +
+            "FROM User u WHERE u.id IN :ids")
+    List<MatchProfileView> findProfiles(@Param("ids") Collection<Long> ids);
+
+    // Taste items per category for a batch of users, ordered by name for display
+
+    @Query("SELECT new com.QueueUp.Backend.dto.TasteItemView(u.id, a.spotifyId, a.name, a.imageUrl) " +
+            "FROM User u JOIN u.topArtists a WHERE u.id IN :ids ORDER BY a.name")
+    List<TasteItemView> findTopArtistItems(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new com.QueueUp.Backend.dto.TasteItemView(u.id, t.spotifyId, t.name, t.imageUrl) " +
+            "FROM User u JOIN u.topTracks t WHERE u.id IN :ids ORDER BY t.name")
+    List<TasteItemView> findTopTrackItems(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new com.QueueUp.Backend.dto.TasteItemView(u.id, t.spotifyId, t.name, t.imageUrl) " +
+            "FROM User u JOIN u.savedTracks t WHERE u.id IN :ids ORDER BY t.name")
+    List<TasteItemView> findSavedTrackItems(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new com.QueueUp.Backend.dto.TasteItemView(u.id, a.spotifyId, a.name, a.imageUrl) " +
+            "FROM User u JOIN u.followedArtists a WHERE u.id IN :ids ORDER BY a.name")
+    List<TasteItemView> findFollowedArtistItems(@Param("ids") Collection<Long> ids);
+}
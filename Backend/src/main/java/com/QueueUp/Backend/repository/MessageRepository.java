@@ -1,20 +1,35 @@
 package com.QueueUp.Backend.repository;
 
 import com.QueueUp.Backend.model.Message;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface MessageRepository extends JpaRepository<Message, Long> {
 
-    // "Find messages where (Sender is Me AND Receiver is You) OR (Sender is You AND Receiver is Me)"
-    @Query("SELECT m FROM Message m WHERE " +
-            "(m.sender.id = :userId1 AND m.receiver.id = :userId2) OR " +
-            "(m.sender.id = :userId2 AND m.receiver.id = :userId1) " +
-            "ORDER BY m.createdAt ASC")
-    List<Message> findConversation(@Param("userId1") Long userId1, @Param("userId2") Long userId2);
-}
\ No newline at end of file
+    // Newest messages of the conversation first, keyed by Message.conversationKey(userId1, userId2)
+    @Query("SELECT m FROM Message m WHERE m.conversationKey = :conversationKey " +
+            "ORDER BY m.createdAt DESC, m.id DESC")
+    List<Message> findLatestOfConversation(@Param("conversationKey") String conversationKey, Pageable page);
+
+    // Keyset page: the newest messages strictly older than (beforeCreatedAt, beforeId)
+    @Query("SELECT m FROM Message m WHERE m.conversationKey = :conversationKey " +
+            "AND (m.createdAt < :beforeCreatedAt OR (m.createdAt = :beforeCreatedAt AND m.id < :beforeId)) " +
+            "ORDER BY m.createdAt DESC, m.id DESC")
+    List<Message> findConversationBefore(@Param("conversationKey") String conversationKey,
+                                         @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+                                         @Param("beforeId") Long beforeId,
+                                         Pageable page);
+
+    // Cursor position, only for a message of the given conversation
+    @Query("SELECT m.createdAt FROM Message m WHERE m.id = :id AND m.conversationKey = :conversationKey")
+    Optional<LocalDateTime> findCreatedAtInConversation(@Param("id") Long id,
+                                                        @Param("conversationKey") String conversationKey);
+}
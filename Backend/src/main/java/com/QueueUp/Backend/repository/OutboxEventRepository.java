@@ -0,0 +1,43 @@
+package com.QueueUp.Backend.repository;
+
+import com.QueueUp.Backend.model.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Oldest undelivered events of the given recipients that nobody holds a live lease on;
+    // rows another dispatcher is claiming right now are skipped instead of waited on
+    @Query(value = "SELECT * FROM outbox_event WHERE dispatched_at IS NULL AND recipient_id IN (:recipientIds) " +
+            "AND created_at > :createdAfter AND (claimed_at IS NULL OR claimed_at < :leaseExpiredBefore) " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEvent> findClaimable(@Param("recipientIds") Collection<Long> recipientIds,
+                                    @Param("createdAfter") LocalDateTime createdAfter,
+                                    @Param("leaseExpiredBefore") LocalDateTime leaseExpiredBefore,
+                                    @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.claimedBy = :claimedBy, e.claimedAt = :claimedAt WHERE e.id IN :ids")
+    int lease(@Param("ids") Collection<Long> ids, @Param("claimedBy") String claimedBy,
+              @Param("claimedAt") LocalDateTime claimedAt);
+
+    // Only the lease holder completes an event, a dispatcher whose lease expired changes nothing
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.dispatchedAt = :dispatchedAt " +
+            "WHERE e.id IN :ids AND e.claimedBy = :claimedBy AND e.dispatchedAt IS NULL")
+    int markDispatched(@Param("ids") Collection<Long> ids, @Param("claimedBy") String claimedBy,
+                       @Param("dispatchedAt") LocalDateTime dispatchedAt);
+
+    // Delivered events, and undelivered ones long past their delivery window
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,54 @@
+package com.QueueUp.Backend.repository;
+
+import com.QueueUp.Backend.model.SwipeEdge;
+import com.QueueUp.Backend.model.SwipeEdgeId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SwipeEdgeRepository extends JpaRepository<SwipeEdge, SwipeEdgeId> {
+
+    // Serializes concurrent swipes within one pair until commit, the key must be the same for (a, b) and (b, a)
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(:pairKey)", nativeQuery = true)
+    Integer lockPair(@Param("pairKey") long pairKey);
+
+    // Repeats are no-ops, except that a like replaces an earlier dislike so the pair can still match.
+    // A dislike never undoes a like. Returns the number of rows inserted or updated
+    @Modifying
+    @Query(value = "INSERT INTO swipe_edge (swiper_id, target_id, direction, matched, created_at) " +
+            "VALUES (:swiperId, :targetId, :direction, false, now()) " +
+            "ON CONFLICT (swiper_id, target_id) DO UPDATE SET direction = 'LIKE' " +
+            "WHERE swipe_edge.direction = 'DISLIKE' AND EXCLUDED.direction = 'LIKE'", nativeQuery = true)
+    int upsertSwipe(@Param("swiperId") Long swiperId,
+                    @Param("targetId") Long targetId,
+                    @Param("direction") String direction);
+
+    // Two primary-key probes, 2 means both users liked each other
+    @Query(value = "SELECT COUNT(*) FROM swipe_edge WHERE direction = 'LIKE' AND (" +
+            "(swiper_id = :userA AND target_id = :userB) OR (swiper_id = :userB AND target_id = :userA))", nativeQuery = true)
+    int countMutualLikes(@Param("userA") Long userA, @Param("userB") Long userB);
+
+    // Of the given users, those who liked the user back while the user liked them
+    @Query(value = "SELECT e.swiper_id FROM swipe_edge e " +
+            "JOIN swipe_edge m ON m.swiper_id = :userId AND m.target_id = e.swiper_id AND m.direction = 'LIKE' " +
+            "WHERE e.target_id = :userId AND e.direction = 'LIKE' AND e.swiper_id IN (:ids)", nativeQuery = true)
+    List<Long> findMutualLikeIds(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    // Returns how many rows flipped, 0 when the pair was already matched
+    @Modifying
+    @Query(value = "UPDATE swipe_edge SET matched = true WHERE matched = false AND (" +
+            "(swiper_id = :userA AND target_id = :userB) OR (swiper_id = :userB AND target_id = :userA))", nativeQuery = true)
+    int markMatched(@Param("userA") Long userA, @Param("userB") Long userB);
+
+    @Query(value = "SELECT target_id FROM swipe_edge WHERE swiper_id = :userId", nativeQuery = true)
+    List<Long> findTargetIds(@Param("userId") Long userId);
+
+    @Query(value = "SELECT target_id FROM swipe_edge WHERE swiper_id = :userId AND matched = true", nativeQuery = true)
+    List<Long> findMatchedIds(@Param("userId") Long userId);
+}
@@ -2,8 +2,11 @@ package com.QueueUp.Backend.repository;
 
 import com.QueueUp.Backend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,6 +14,46 @@ import java.util.Optional;
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
 
-    // Finds all users whose ID is NOT in the provided list
-    List<User> findByIdNotIn(List<Long> excludedIds);
-}
\ No newline at end of file
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Raw (user_id, spotify_id) rows used to build the in-memory taste index
+    @Query(value = "SELECT user_id, artist_id FROM user_top_artists", nativeQuery = true)
+    List<Object[]> findAllTopArtistIds();
+
+    @Query(value = "SELECT user_id, track_id FROM user_top_tracks", nativeQuery = true)
+    List<Object[]> findAllTopTrackIds();
+
+    @Query(value = "SELECT user_id, track_id FROM user_saved_tracks", nativeQuery = true)
+    List<Object[]> findAllSavedTrackIds();
+
+    @Query(value = "SELECT user_id, artist_id FROM user_followed_artists", nativeQuery = true)
+    List<Object[]> findAllFollowedArtistIds();
+
+    // Weighted overlap scored in the database: (candidate_id, score) rows in feed order after the
+    // (afterScore, afterId) position, without swiped or matched users and without loading any User
+    @Query(value = "SELECT c.user_id AS candidate_id, SUM(c.weight) AS score FROM (" +
+            "SELECT o.user_id, CAST(:topArtistsWeight AS INTEGER) AS weight FROM user_top_artists m " +
+            "JOIN user_top_artists o ON o.artist_id = m.artist_id WHERE m.user_id = :userId " +
+            "UNION ALL SELECT o.user_id, CAST(:topTracksWeight AS INTEGER) FROM user_top_tracks m " +
+            "JOIN user_top_tracks o ON o.track_id = m.track_id WHERE m.user_id = :userId " +
+            "UNION ALL SELECT o.user_id, CAST(:savedTracksWeight AS INTEGER) FROM user_saved_tracks m " +
+            "JOIN user_saved_tracks o ON o.track_id = m.track_id WHERE m.user_id = :userId " +
+            "UNION ALL SELECT o.user_id, CAST(:followedArtistsWeight AS INTEGER) FROM user_followed_artists m " +
+            "JOIN user_followed_artists o ON o.artist_id = m.artist_id WHERE m.user_id = :userId" +
+            ") c " +
+            "WHERE c.user_id <> :userId " +
+            "AND NOT EXISTS (SELECT 1 FROM swipe_edge s WHERE s.swiper_id = :userId AND s.target_id = c.user_id) " +
+            "GROUP BY c.user_id " +
+            "HAVING SUM(c.weight) < :afterScore OR (SUM(c.weight) = :afterScore AND c.user_id > :afterId) " +
+            "ORDER BY score DESC, candidate_id ASC " +
+            "LIMIT :limit", nativeQuery = true)
+    List<Object[]> findTopOverlapCandidates(@Param("userId") Long userId,
+                                            @Param("topArtistsWeight") int topArtistsWeight,
+                                            @Param("topTracksWeight") int topTracksWeight,
+                                            @Param("savedTracksWeight") int savedTracksWeight,
+                                            @Param("followedArtistsWeight") int followedArtistsWeight,
+                                            @Param("afterScore") int afterScore,
+                                            @Param("afterId") long afterId,
+                                            @Param("limit") int limit);
+}
@@ -0,0 +1,103 @@
+package com.QueueUp.Backend.service;
+
+import com.QueueUp.Backend.model.AttachmentBlob;
+import com.QueueUp.Backend.model.BlobStorage;
+import com.QueueUp.Backend.repository.AttachmentBlobRefRepository;
+import com.QueueUp.Backend.repository.AttachmentBlobRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed index of stored attachment objects. A file whose SHA-256 is
+ * already known is attached by reference to the existing object, so sending the
+ * same meme or PDF again moves no bytes and stores nothing new. Users only see
+ * blobs they hold a reference to, from uploading the bytes or being sent them,
+ * so a hash or object key on its own does not unlock someone else's file.
+ */
+@Component
+public class AttachmentBlobStore {
+
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+
+    private final AttachmentBlobRepository attachmentBlobRepository;
+    private final AttachmentBlobRefRepository attachmentBlobRefRepository;
+
+    public AttachmentBlobStore(AttachmentBlobRepository attachmentBlobRepository,
+                               AttachmentBlobRefRepository attachmentBlobRefRepository) {
+        this.attachmentBlobRepository = attachmentBlobRepository;
+        this.attachmentBlobRefRepository = attachmentBlobRefRepository;
+    }
+
+    public static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public static String hex(MessageDigest digest) {
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Blob for a hash the client claims to hold. Only answers for content the user
+     * already has a reference to, anyone else uploads the bytes so the server can hash them.
+     */
+    @Transactional(readOnly = true)
+    public Optional<AttachmentBlob> findFor(Long userId, String sha256) {
+        String normalized = normalize(sha256);
+        if (userId == null || normalized == null) return Optional.empty();
+        return attachmentBlobRepository.findReferenced(userId, normalized);
+    }
+
+    // Blob behind an object key the user wants to attach, if they hold a reference to it
+    @Transactional(readOnly = true)
+    public Optional<AttachmentBlob> findByKeyFor(Long userId, String objectKey) {
+        return attachmentBlobRepository.findReferencedByObjectKey(userId, objectKey);
+    }
+
+    /**
+     * Blob for a hash the server computed from bytes the user sent, granting the user
+     * a reference since they evidently have the content.
+     */
+    @Transactional
+    public Optional<AttachmentBlob> claim(Long userId, String sha256) {
+        Optional<AttachmentBlob> blob = attachmentBlobRepository.findById(sha256);
+        blob.ifPresent(b -> attachmentBlobRefRepository.grant(userId, b.getSha256()));
+        return blob;
+    }
+
+    /**
+     * Records a freshly stored object under a hash the server computed, and gives the
+     * uploader a reference. Returns the blob that owns the hash, which is an earlier
+     * object if someone stored the same content first; the caller should then drop its own copy.
+     */
+    @Transactional
+    public AttachmentBlob register(Long userId, String sha256, BlobStorage storage, String objectKey, String url,
+                                   Long size) {
+        attachmentBlobRepository.register(sha256, storage.name(), objectKey, url, size);
+        attachmentBlobRefRepository.grant(userId, sha256);
+        return attachmentBlobRepository.findById(sha256)
+                .orElseThrow(() -> new RuntimeException("Blob was not registered"));
+    }
+
+    // The recipient of a message may forward what it was sent; keys that are not blobs are ignored
+    @Transactional
+    public void share(Long userId, String objectKey) {
+        if (objectKey == null || objectKey.isEmpty()) return;
+        attachmentBlobRefRepository.grantByObjectKey(userId, objectKey);
+    }
+
+    private static String normalize(String sha256) {
+        if (sha256 == null) return null;
+        String normalized = sha256.toLowerCase();
+        return SHA256_HEX.matcher(normalized).matches() ? normalized : null;
+    }
+}
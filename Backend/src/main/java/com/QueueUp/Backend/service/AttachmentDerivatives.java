@@ -0,0 +1,218 @@
+package com.QueueUp.Backend.service;
+
+import com.QueueUp.Backend.model.Attachment;
+import com.QueueUp.Backend.model.AttachmentCategory;
+import com.QueueUp.Backend.model.AttachmentStatus;
+import com.QueueUp.Backend.repository.AttachmentRepository;
+import com.cloudinary.Cloudinary;
+import com.cloudinary.utils.ObjectUtils;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Small previews of chat media, so bubbles load kilobytes instead of the original.
+ * Cloudinary-hosted images and videos get a thumbnail / poster frame as a URL
+ * transformation right away, so they are already in the newMessage payload. Images
+ * stored in S3 are scaled down with ImageIO on a small bounded pool after commit,
+ * stored on Cloudinary, and announced with an attachmentDerivatives event. Poster
+ * frames of S3 videos would need a video decoder, so those keep no poster.
+ */
+@Component
+public class AttachmentDerivatives {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttachmentDerivatives.class);
+
+    private final S3Client s3Client;
+    private final S3StreamUploader s3StreamUploader;
+    private final Cloudinary cloudinary;
+    private final AttachmentRepository attachmentRepository;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor workers;
+
+    @Value("${aws.s3-bucket}")
+    private String bucketName;
+
+    @Value("${app.attachments.thumbnail-size:480}")
+    private int thumbnailSize;
+
+    @Value("${app.attachments.thumbnail-max-source-bytes:26214400}")
+    private long maxSourceBytes;
+
+    public AttachmentDerivatives(S3Client s3Client,
+                                 S3StreamUploader s3StreamUploader,
+                                 Cloudinary cloudinary,
+                                 AttachmentRepository attachmentRepository,
+                                 OutboxService outboxService,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.attachments.derivative-threads:2}") int threads,
+                                 @Value("${app.attachments.derivative-queue-size:100}") int queueSize) {
+        this.s3Client = s3Client;
+        this.s3StreamUploader = s3StreamUploader;
+        this.cloudinary = cloudinary;
+        this.attachmentRepository = attachmentRepository;
+        this.outboxService = outboxService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Previews are best effort, when the queue is full the bubble just shows the original
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                r -> {
+                    Thread thread = new Thread(r, "attachment-derivatives");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (task, executor) -> logger.warn("Derivative queue is full, skipping a thumbnail"));
+    }
+
+    // One S3 image of a committed message that still needs a thumbnail
+    public record DerivativeJob(Long attachmentId, Long messageId, Long senderId, Long receiverId, String key) {
+    }
+
+    /**
+     * Fills in thumbnailUrl / posterUrl when they are just a Cloudinary transformation
+     * of the stored URL. Call before the attachment is saved.
+     */
+    public void applyUrlDerivatives(Attachment attachment) {
+        String url = attachment.getUrl();
+        if (url == null || !url.contains("res.cloudinary.com/") || !url.contains("/upload/")) return;
+
+        if (attachment.getCategory() == AttachmentCategory.IMAGE) {
+            attachment.setThumbnailUrl(url.replace("/upload/",
+                    "/upload/c_limit,w_" + thumbnailSize + ",h_" + thumbnailSize + ",q_auto,f_auto/"));
+        } else if (attachment.getCategory() == AttachmentCategory.VIDEO && url.contains("/video/upload/")) {
+            // First frame as a JPEG
+            String poster = url.replace("/upload/",
+                    "/upload/so_0,c_limit,w_" + thumbnailSize + ",h_" + thumbnailSize + ",q_auto/");
+            attachment.setPosterUrl(poster.replaceFirst("\\.[A-Za-z0-9]+$", "") + ".jpg");
+        }
+    }
+
+    // True for a stored S3 image without a thumbnail, those are rendered in the background
+    public boolean needsRendering(Attachment attachment) {
+        return attachment.getCategory() == AttachmentCategory.IMAGE
+                && attachment.getStatus() == AttachmentStatus.READY
+                && attachment.getThumbnailUrl() == null
+                && attachment.getKey() != null && !attachment.getKey().isEmpty()
+                && s3StreamUploader.publicUrl(attachment.getKey()).equals(attachment.getUrl());
+    }
+
+    // Call after the attachment has committed
+    public void submit(DerivativeJob job) {
+        workers.execute(() -> render(job));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    private void render(DerivativeJob job) {
+        try {
+            // Deduplicated uploads share the object, and so the thumbnail
+            String thumbnailUrl = attachmentRepository.findFirstByKeyAndThumbnailUrlIsNotNull(job.key())
+                    .map(Attachment::getThumbnailUrl)
+                    .orElse(null);
+            if (thumbnailUrl == null) {
+                byte[] thumbnail = thumbnailOf(job.key());
+                if (thumbnail == null) return;
+
+                @SuppressWarnings("unchecked")
+                Map<String, Object> result = cloudinary.uploader().upload(thumbnail, ObjectUtils.asMap(
+                        "folder", "chat_thumbnails",
+                        "resource_type", "image"
+                ));
+                thumbnailUrl = (String) result.get("secure_url");
+            }
+            store(job, thumbnailUrl);
+        } catch (Exception e) {
+            logger.warn("Could not create a thumbnail for attachment {}", job.attachmentId(), e);
+        }
+    }
+
+    // JPEG no larger than thumbnailSize on either side, or null if the object is not a readable image
+    private byte[] thumbnailOf(String key) throws IOException {
+        try (ResponseInputStream<GetObjectResponse> object = s3Client.getObject(GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .build())) {
+            Long length = object.response().contentLength();
+            if (length != null && length > maxSourceBytes) return null;
+
+            try (ImageInputStream input = ImageIO.createImageInputStream(object)) {
+                Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+                if (!readers.hasNext()) return null;
+                ImageReader reader = readers.next();
+                try {
+                    reader.setInput(input, true, true);
+                    int width = reader.getWidth(0);
+                    int height = reader.getHeight(0);
+
+                    // Decode every n-th pixel only, so a large photo never sits in memory at full size
+                    ImageReadParam param = reader.getDefaultReadParam();
+                    int step = Math.max(1, Math.max(width, height) / (thumbnailSize * 2));
+                    param.setSourceSubsampling(step, step, 0, 0);
+                    BufferedImage source = reader.read(0, param);
+
+                    double scale = Math.min(1.0, (double) thumbnailSize / Math.max(source.getWidth(), source.getHeight()));
+                    int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * scale));
+                    int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+                    BufferedImage target = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
+                    Graphics2D graphics = target.createGraphics();
+                    try {
+                        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                        graphics.setColor(Color.WHITE); // JPEG has no alpha
+                        graphics.fillRect(0, 0, targetWidth, targetHeight);
+                        graphics.drawImage(source, 0, 0, targetWidth, targetHeight, null);
+                    } finally {
+                        graphics.dispose();
+                    }
+
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    ImageIO.write(target, "jpg", out);
+                    return out.toByteArray();
+                } finally {
+                    reader.dispose();
+                }
+            }
+        }
+    }
+
+    private void store(DerivativeJob job, String thumbnailUrl) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            if (attachmentRepository.setThumbnailUrl(job.attachmentId(), thumbnailUrl) == 0) return;
+
+            Map<String, Object> payload = new HashMap<>();
+            payload.put("attachmentId", job.attachmentId());
+            payload.put("messageId", job.messageId());
+            payload.put("thumbnailUrl", thumbnailUrl);
+
+            outboxService.enqueue(job.senderId(), "attachmentDerivatives", payload);
+            outboxService.enqueue(job.receiverId(), "attachmentDerivatives", payload);
+        });
+    }
+}
@@ -0,0 +1,287 @@
+package com.QueueUp.Backend.service;
+
+import com.QueueUp.Backend.dto.PendingAttachmentView;
+import com.QueueUp.Backend.model.Attachment;
+import com.QueueUp.Backend.model.AttachmentBlob;
+import com.QueueUp.Backend.model.AttachmentCategory;
+import com.QueueUp.Backend.model.AttachmentStatus;
+import com.QueueUp.Backend.model.BlobStorage;
+import com.QueueUp.Backend.repository.AttachmentRepository;
+import com.cloudinary.Cloudinary;
+import com.cloudinary.utils.ObjectUtils;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Uploads data-URI attachments to Cloudinary after the message is committed, so a
+ * slow upload never holds a database connection or the send request. Each upload
+ * is retried with exponential backoff, then the attachment row moves to READY or
+ * FAILED and both users get an attachmentReady / attachmentFailed event through
+ * the outbox. When the queue is full the upload is handed to the periodic sweep,
+ * which marks it FAILED off the request thread. The same sweep fails attachments
+ * that stayed pending longer than the upload timeout, e.g. because the instance
+ * uploading them stopped. Content that AttachmentBlobStore already knows by hash
+ * is attached without uploading.
+ */
+@Component
+public class AttachmentUploadPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttachmentUploadPipeline.class);
+
+    private final Cloudinary cloudinary;
+    private final AttachmentRepository attachmentRepository;
+    private final OutboxService outboxService;
+    private final AttachmentBlobStore attachmentBlobStore;
+    private final AttachmentDerivatives attachmentDerivatives;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor workers;
+
+    @Value("${app.attachments.upload-max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.attachments.upload-backoff-ms:1000}")
+    private long backoffMs;
+
+    // Longer than any upload can take here, queue wait and retries included
+    @Value("${app.attachments.upload-timeout-seconds:900}")
+    private long uploadTimeoutSeconds;
+
+    private static final int SWEEP_BATCH = 100;
+
+    // Uploads queued or running on this instance, the sweep never fails those
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    // Uploads the full queue turned away, failed by the next sweep
+    private final Queue<PendingUpload> rejected = new ConcurrentLinkedQueue<>();
+
+    public AttachmentUploadPipeline(Cloudinary cloudinary,
+                                    AttachmentRepository attachmentRepository,
+                                    OutboxService outboxService,
+                                    AttachmentBlobStore attachmentBlobStore,
+                                    AttachmentDerivatives attachmentDerivatives,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${app.attachments.upload-threads:2}") int threads,
+                                    @Value("${app.attachments.upload-queue-size:50}") int queueSize) {
+        this.cloudinary = cloudinary;
+        this.attachmentRepository = attachmentRepository;
+        this.outboxService = outboxService;
+        this.attachmentBlobStore = attachmentBlobStore;
+        this.attachmentDerivatives = attachmentDerivatives;
+        // Every resolve() commits on its own, it never joins whatever transaction the caller may have
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                r -> {
+                    Thread thread = new Thread(r, "attachment-upload");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (task, executor) -> reject(((UploadTask) task).upload));
+    }
+
+    // One pending attachment of a committed message
+    public record PendingUpload(Long attachmentId, Long messageId, Long senderId, Long receiverId,
+                                AttachmentCategory category, String data) {
+    }
+
+    // Call after the message has committed, the worker looks the attachment row up by id
+    public void submit(PendingUpload upload) {
+        inFlight.add(upload.attachmentId());
+        workers.execute(new UploadTask(upload));
+    }
+
+    private final class UploadTask implements Runnable {
+
+        private final PendingUpload upload;
+
+        UploadTask(PendingUpload upload) {
+            this.upload = upload;
+        }
+
+        @Override
+        public void run() {
+            try {
+                AttachmentUploadPipeline.this.upload(upload);
+            } finally {
+                inFlight.remove(upload.attachmentId());
+            }
+        }
+    }
+
+    // Queue full or shutting down. This runs on the request thread inside afterCommit, so no
+    // transaction is opened here; the sweep fails the attachment shortly after
+    private void reject(PendingUpload upload) {
+        logger.warn("Upload queue is full, attachment {} will be marked as failed", upload.attachmentId());
+        inFlight.remove(upload.attachmentId());
+        rejected.add(upload);
+    }
+
+    /**
+     * Fails rejected uploads, and attachments left pending past the upload timeout that this
+     * instance is not working on, with the same attachmentFailed events as a failed upload.
+     */
+    @Scheduled(fixedDelayString = "${app.attachments.sweep-interval-ms:5000}")
+    public void sweep() {
+        try {
+            for (PendingUpload upload; (upload = rejected.poll()) != null; ) {
+                resolve(upload, AttachmentStatus.FAILED, null, "");
+            }
+
+            LocalDateTime cutoff = LocalDateTime.now().minusSeconds(uploadTimeoutSeconds);
+            List<PendingAttachmentView> stale = transactionTemplate.execute(status ->
+                    attachmentRepository.findPendingSentBefore(cutoff, PageRequest.of(0, SWEEP_BATCH)));
+            if (stale == null || stale.isEmpty()) return;
+
+            int failed = 0;
+            for (PendingAttachmentView attachment : stale) {
+                if (inFlight.contains(attachment.attachmentId())) continue;
+                resolve(new PendingUpload(attachment.attachmentId(), attachment.messageId(), attachment.senderId(),
+                        attachment.receiverId(), attachment.category(), null), AttachmentStatus.FAILED, null, "");
+                failed++;
+            }
+            if (failed > 0) {
+                logger.warn("Marked {} attachments pending for over {}s as failed", failed, uploadTimeoutSeconds);
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to sweep pending attachments", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    private void upload(PendingUpload upload) {
+        byte[] bytes = decode(upload.data());
+        String sha256 = null;
+        if (bytes != null) {
+            MessageDigest digest = AttachmentBlobStore.sha256();
+            digest.update(bytes);
+            sha256 = AttachmentBlobStore.hex(digest);
+
+            Optional<AttachmentBlob> existing = attachmentBlobStore.claim(upload.senderId(), sha256);
+            if (existing.isPresent()) {
+                resolve(upload, AttachmentStatus.READY, existing.get().getUrl(), existing.get().getObjectKey());
+                return;
+            }
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> result = cloudinary.uploader().upload(upload.data(), ObjectUtils.asMap(
+                        "folder", "chat_attachments",
+                        "resource_type", "auto"
+                ));
+                String url = (String) result.get("secure_url");
+                String publicId = (String) result.get("public_id");
+
+                if (sha256 != null) {
+                    AttachmentBlob blob = attachmentBlobStore.register(upload.senderId(), sha256,
+                            BlobStorage.CLOUDINARY, publicId, url, (long) bytes.length);
+                    if (!blob.getObjectKey().equals(publicId)) {
+                        // The same content was stored concurrently, keep the registered copy
+                        destroyQuietly(publicId, (String) result.get("resource_type"));
+                        url = blob.getUrl();
+                        publicId = blob.getObjectKey();
+                    }
+                }
+                resolve(upload, AttachmentStatus.READY, url, publicId);
+                return;
+            } catch (Exception e) {
+                if (attempt >= maxAttempts) {
+                    logger.warn("Upload of attachment {} failed after {} attempts", upload.attachmentId(), attempt, e);
+                    resolve(upload, AttachmentStatus.FAILED, null, "");
+                    return;
+                }
+            }
+
+            try {
+                Thread.sleep(backoffMs << (attempt - 1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                resolve(upload, AttachmentStatus.FAILED, null, "");
+                return;
+            }
+        }
+    }
+
+    // File bytes of a base64 data URI, or null if it is not one
+    private byte[] decode(String dataUri) {
+        int comma = dataUri.indexOf(',');
+        if (comma < 0 || !dataUri.substring(0, comma).endsWith(";base64")) return null;
+        try {
+            return Base64.getDecoder().decode(dataUri.substring(comma + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private void destroyQuietly(String publicId, String resourceType) {
+        try {
+            cloudinary.uploader().destroy(publicId, ObjectUtils.asMap(
+                    "resource_type", resourceType != null ? resourceType : "image"
+            ));
+        } catch (Exception e) {
+            logger.warn("Could not delete duplicate upload {}", publicId, e);
+        }
+    }
+
+    private void resolve(PendingUpload upload, AttachmentStatus status, String url, String key) {
+        // Same previews an attachment saved with its URL would get
+        Attachment resolved = new Attachment();
+        resolved.setId(upload.attachmentId());
+        resolved.setCategory(upload.category());
+        resolved.setStatus(status);
+        resolved.setUrl(url);
+        resolved.setKey(key);
+        attachmentDerivatives.applyUrlDerivatives(resolved);
+
+        Boolean updated = transactionTemplate.execute(tx -> {
+            if (attachmentRepository.resolvePending(upload.attachmentId(), status, url, key,
+                    resolved.getThumbnailUrl(), resolved.getPosterUrl()) == 0) return false;
+
+            Map<String, Object> payload = new HashMap<>();
+            payload.put("attachmentId", upload.attachmentId());
+            payload.put("messageId", upload.messageId());
+            payload.put("status", status);
+            payload.put("url", url);
+            payload.put("key", key);
+            payload.put("thumbnailUrl", resolved.getThumbnailUrl());
+            payload.put("posterUrl", resolved.getPosterUrl());
+
+            if (status == AttachmentStatus.READY) {
+                attachmentBlobStore.share(upload.receiverId(), key);
+            }
+
+            String eventType = status == AttachmentStatus.READY ? "attachmentReady" : "attachmentFailed";
+            outboxService.enqueue(upload.senderId(), eventType, payload);
+            outboxService.enqueue(upload.receiverId(), eventType, payload);
+            return true;
+        });
+
+        // A deduplicated upload can resolve to an S3 image, which needs a rendered thumbnail
+        if (Boolean.TRUE.equals(updated) && attachmentDerivatives.needsRendering(resolved)) {
+            attachmentDerivatives.submit(new AttachmentDerivatives.DerivativeJob(upload.attachmentId(),
+                    upload.messageId(), upload.senderId(), upload.receiverId(), key));
+        }
+    }
+}
@@ -2,9 +2,11 @@ package com.QueueUp.Backend.service;
 
 import at.favre.lib.crypto.bcrypt.BCrypt;
 import com.QueueUp.Backend.model.Artist;
+import com.QueueUp.Backend.model.SwipeDirection;
 import com.QueueUp.Backend.model.Track;
 import com.QueueUp.Backend.model.User;
 import com.QueueUp.Backend.repository.ArtistRepository;
+import com.QueueUp.Backend.repository.SwipeEdgeRepository;
 import com.QueueUp.Backend.repository.TrackRepository;
 import com.QueueUp.Backend.repository.UserRepository;
 import com.QueueUp.Backend.socket.SocketService;
@@ -43,11 +45,16 @@ public class AuthService {
 
     private static final Logger logger = LoggerFactory.getLogger(AuthService.class);
     private final UserRepository userRepository;
+    private final SwipeEdgeRepository swipeEdgeRepository;
     private final ArtistRepository artistRepository;
     private final TrackRepository trackRepository;
     private final Cloudinary cloudinary;
     private final SpotifyClientFactory spotifyClientFactory;
     private final SocketService socketService;
+    private final TasteIndex tasteIndex;
+    private final TasteProfileCache tasteProfileCache;
+    private final CompatibilityCache compatibilityCache;
+    private final FeedStore feedStore;
     private final TransactionTemplate transactionTemplate;
     private final Random random = new Random();
 
@@ -84,18 +91,28 @@ public class AuthService {
     );
 
     public AuthService(UserRepository userRepository,
+                       SwipeEdgeRepository swipeEdgeRepository,
                        ArtistRepository artistRepository,
                        TrackRepository trackRepository,
                        Cloudinary cloudinary,
                        SpotifyClientFactory spotifyClientFactory,
                        SocketService socketService,
+                       TasteIndex tasteIndex,
+                       TasteProfileCache tasteProfileCache,
+                       CompatibilityCache compatibilityCache,
+                       FeedStore feedStore,
                        PlatformTransactionManager transactionManager) {
         this.userRepository = userRepository;
+        this.swipeEdgeRepository = swipeEdgeRepository;
         this.artistRepository = artistRepository;
         this.trackRepository = trackRepository;
         this.cloudinary = cloudinary;
         this.spotifyClientFactory = spotifyClientFactory;
         this.socketService = socketService;
+        this.tasteIndex = tasteIndex;
+        this.tasteProfileCache = tasteProfileCache;
+        this.compatibilityCache = compatibilityCache;
+        this.feedStore = feedStore;
         this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
@@ -290,8 +307,9 @@ public class AuthService {
 
         // 4. Save Bot and Link
         User savedBot = userRepository.save(bot);
-        savedBot.getLikes().add(sourceUser);
-        userRepository.save(savedBot);
+        swipeEdgeRepository.upsertSwipe(savedBot.getId(), sourceUser.getId(), SwipeDirection.LIKE.name());
+
+        indexAfterCommit(savedBot);
 
         return savedBot.getId();
     }
@@ -438,6 +456,34 @@ public class AuthService {
         } catch (Exception e) {
             throw new RuntimeException("Error communicating with Spotify", e);
         }
+
+        indexAfterCommit(user);
+    }
+
+    // Snapshot the music data now, but only publish it to the taste index once the rows are committed
+    private void indexAfterCommit(User user) {
+        Long userId = user.getId();
+        TasteSnapshot snapshot = tasteIndex.capture(user);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publishTaste(userId, snapshot);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publishTaste(userId, snapshot);
+            }
+        });
+    }
+
+    private void publishTaste(Long userId, TasteSnapshot snapshot) {
+        tasteIndex.indexUser(userId, snapshot);
+        tasteProfileCache.invalidate(userId);
+        compatibilityCache.invalidate(userId);
+        // Slot the profile into the materialized feeds it now ranks in
+        feedStore.onProfileIndexed(userId);
     }
 
     private Artist saveOrGetArtist(se.michaelthelin.spotify.model_objects.specification.Artist spotifyArtist) {
@@ -0,0 +1,34 @@
+package com.QueueUp.Backend.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Maps every Spotify artist/track id to a dense int so taste data can be
+ * stored and compared as primitive arrays instead of sets of strings.
+ */
+@Component
+public class CatalogInterner {
+
+    public static final int UNKNOWN = -1;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    public int intern(String spotifyId) {
+        return ids.computeIfAbsent(spotifyId, k -> nextId.getAndIncrement());
+    }
+
+    // Read-only lookup, never grows the catalog
+    public int lookup(String spotifyId) {
+        Integer id = ids.get(spotifyId);
+        return id != null ? id : UNKNOWN;
+    }
+
+    public int size() {
+        return nextId.get();
+    }
+}
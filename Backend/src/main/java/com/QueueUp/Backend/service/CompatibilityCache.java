@@ -0,0 +1,88 @@
+package com.QueueUp.Backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Bounded cache of pairwise compatibility (score and shared items), keyed by the
+ * two user ids and both taste versions from TasteProfileCache. A pair's entry
+ * stays valid until either side's music data changes, so the matches sidebar
+ * renders without recomputing any overlap. Published as cache=pairCompatibility.
+ */
+@Component
+public class CompatibilityCache {
+
+    private final TasteProfileCache tasteProfileCache;
+    private final Cache<PairKey, PairCompatibility> cache;
+
+    public CompatibilityCache(TasteProfileCache tasteProfileCache,
+                              @Value("${app.cache.pair-compatibility.max-size:20000}") long maxSize,
+                              MeterRegistry meterRegistry) {
+        this.tasteProfileCache = tasteProfileCache;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "pairCompatibility");
+    }
+
+    public PairCompatibility between(Long userId, Long otherUserId) {
+        return between(userId, List.of(otherUserId)).get(otherUserId);
+    }
+
+    /**
+     * Compatibility of the user with each of the others, keyed by the other user's id.
+     * Missing pairs are computed together from the cached taste profiles.
+     */
+    public Map<Long, PairCompatibility> between(Long userId, Collection<Long> otherIds) {
+        long version = tasteProfileCache.versionOf(userId);
+        Set<PairKey> keys = new LinkedHashSet<>();
+        for (Long otherId : otherIds) {
+            keys.add(PairKey.of(userId, version, otherId, tasteProfileCache.versionOf(otherId)));
+        }
+
+        Map<Long, PairCompatibility> result = new HashMap<>();
+        cache.getAll(keys, missing -> compute(userId, missing))
+                .forEach((key, compatibility) -> result.put(key.other(userId), compatibility));
+        return result;
+    }
+
+    // Called when the user's music data changes, drops every pair they are part of
+    public void invalidate(Long userId) {
+        cache.asMap().keySet().removeIf(key -> key.low() == userId || key.high() == userId);
+    }
+
+    private Map<PairKey, PairCompatibility> compute(Long userId, Set<? extends PairKey> keys) {
+        List<Long> profileIds = new ArrayList<>();
+        profileIds.add(userId);
+        keys.forEach(key -> profileIds.add(key.other(userId)));
+        Map<Long, TasteProfile> profiles = tasteProfileCache.profilesOf(profileIds);
+        TasteProfile mine = profiles.get(userId);
+
+        Map<PairKey, PairCompatibility> computed = new HashMap<>();
+        for (PairKey key : keys) {
+            computed.put(key, PairCompatibility.of(profiles.get(key.other(userId)).sharedWith(mine)));
+        }
+        return computed;
+    }
+
+    // Ordered so (a, b) and (b, a) share an entry
+    private record PairKey(long low, long high, long lowVersion, long highVersion) {
+
+        static PairKey of(long userA, long versionA, long userB, long versionB) {
+            return userA <= userB
+                    ? new PairKey(userA, userB, versionA, versionB)
+                    : new PairKey(userB, userA, versionB, versionA);
+        }
+
+        long other(long userId) {
+            return low == userId ? high : low;
+        }
+    }
+}
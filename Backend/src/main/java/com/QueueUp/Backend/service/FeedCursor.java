@@ -0,0 +1,31 @@
+package com.QueueUp.Backend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque pagination token for the swipe feed: the last candidate returned on
+ * the previous page. The next page is everything ranked after it.
+ */
+public record FeedCursor(ScoredCandidate position) {
+
+    public String encode() {
+        String raw = position.score() + ":" + position.userId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Returns null for a missing or malformed cursor so callers fall back to the first page
+    public static FeedCursor decode(String token) {
+        if (token == null || token.isBlank()) return null;
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length != 2) return null;
+
+            return new FeedCursor(new ScoredCandidate(Long.parseLong(parts[1]), Integer.parseInt(parts[0])));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
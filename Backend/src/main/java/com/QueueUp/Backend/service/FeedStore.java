@@ -0,0 +1,286 @@
+package com.QueueUp.Backend.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongPredicate;
+import java.util.function.Supplier;
+
+/**
+ * Materialized, ranked candidate feed per user. Reads are a slice of the stored
+ * ranking; new profiles and swipes are applied incrementally by a single event
+ * worker instead of re-ranking everything on each request. Paging past the end of
+ * a truncated head feed builds a continuation that is kept next to it, so deep
+ * paging never throws away the head.
+ */
+@Component
+public class FeedStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeedStore.class);
+
+    private final TasteIndex tasteIndex;
+    private final ScoringEngine scoringEngine;
+    private final SwipeExclusionService exclusionService;
+    private final SqlScoringEngine sqlScoringEngine;
+
+    // Ranking backend for rebuilds: the in-memory taste index or the Postgres overlap query
+    private final MatchEngine engine;
+
+    // Each feed keeps at most this many candidates, picked with the bounded heap
+    @Value("${app.feed.max-size:500}")
+    private int maxFeedSize;
+
+    // Feeds older than this are rebuilt on the next read to correct any drift
+    @Value("${app.feed.max-age-seconds:1800}")
+    private long maxAgeSeconds;
+
+    @Value("${app.feed.max-feeds:10000}")
+    private int maxFeeds;
+
+    private final Map<Long, MaterializedFeed> feeds = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, MaterializedFeed> eldest) {
+            return size() > maxFeeds;
+        }
+    });
+
+    // Latest continuation per user, ranked after the point where their head feed was truncated
+    private final Map<Long, MaterializedFeed> continuations = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, MaterializedFeed> eldest) {
+            return size() > maxFeeds;
+        }
+    });
+
+    // Single worker so events are applied in order
+    private final ExecutorService eventWorker = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "feed-events");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicLong pendingEvents = new AtomicLong();
+
+    private final Timer rebuildTimer;
+    private final Timer eventLagTimer;
+
+    public FeedStore(TasteIndex tasteIndex,
+                     ScoringEngine scoringEngine,
+                     SwipeExclusionService exclusionService,
+                     SqlScoringEngine sqlScoringEngine,
+                     @Value("${app.matching.engine:index}") String engine,
+                     MeterRegistry meterRegistry) {
+        this.tasteIndex = tasteIndex;
+        this.scoringEngine = scoringEngine;
+        this.exclusionService = exclusionService;
+        this.sqlScoringEngine = sqlScoringEngine;
+        this.engine = MatchEngine.from(engine);
+
+        this.rebuildTimer = Timer.builder("queueup.feed.rebuild")
+                .description("Time spent re-ranking a user's feed")
+                .tag("engine", this.engine.name().toLowerCase())
+                .register(meterRegistry);
+        this.eventLagTimer = Timer.builder("queueup.feed.event.lag")
+                .description("Delay between a feed event being published and applied")
+                .register(meterRegistry);
+
+        Gauge.builder("queueup.feed.events.pending", pendingEvents, AtomicLong::get)
+                .description("Feed events waiting to be applied")
+                .register(meterRegistry);
+        Gauge.builder("queueup.feed.staleness.seconds", this, FeedStore::oldestFeedAgeSeconds)
+                .description("Age of the oldest materialized feed since its last full rebuild")
+                .register(meterRegistry);
+        Gauge.builder("queueup.feed.materialized", feeds, Map::size)
+                .description("Number of users with a materialized feed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns up to {@code limit} candidates ranked after {@code after}, rebuilding
+     * the feed first if it is missing, too old, or was truncated before that point.
+     */
+    public List<ScoredCandidate> read(Long userId, ScoredCandidate after, int limit, LongPredicate excluded) {
+        MaterializedFeed feed = feeds.get(userId);
+        if (feed == null || feed.ageSeconds() > maxAgeSeconds || !feed.covers(after)) {
+            feed = rebuild(userId, null, excluded);
+        }
+
+        List<ScoredCandidate> page = feed.slice(after, limit, excluded);
+
+        // The stored ranking is capped, so continue past its tail with a continuation feed,
+        // reused across pages until it is stale or paged through
+        if (page.size() < limit && feed.truncated) {
+            ScoredCandidate tail = page.isEmpty() ? after : page.get(page.size() - 1);
+            MaterializedFeed continuation = continuations.get(userId);
+            if (continuation == null || continuation.ageSeconds() > maxAgeSeconds
+                    || !continuation.covers(tail) || !continuation.reaches(tail)) {
+                continuation = rebuild(userId, tail, excluded);
+            }
+            page = new ArrayList<>(page);
+            page.addAll(continuation.slice(tail, limit - page.size(), excluded));
+        }
+        return page;
+    }
+
+    // EVENTS
+
+    // A new or re-synced profile: rescore it against the feeds it would rank in
+    public void onProfileIndexed(Long userId) {
+        publish(() -> {
+            feeds.remove(userId);
+            continuations.remove(userId);
+
+            Map<Long, Integer> scores = tasteIndex.scoreCandidates(userId);
+            rescore(feeds, userId, scores);
+            rescore(continuations, userId, scores);
+        });
+    }
+
+    // A swipe drops the target from the swiper's feed, the exclusion set keeps it out for good
+    public void onSwipe(Long swiperId, Long targetId) {
+        publish(() -> {
+            MaterializedFeed feed = feeds.get(swiperId);
+            if (feed != null) {
+                feed.remove(targetId);
+            }
+            MaterializedFeed continuation = continuations.get(swiperId);
+            if (continuation != null) {
+                continuation.remove(targetId);
+            }
+        });
+    }
+
+    // INTERNALS
+
+    private void rescore(Map<Long, MaterializedFeed> store, Long userId, Map<Long, Integer> scores) {
+        List<Long> owners;
+        synchronized (store) {
+            owners = new ArrayList<>(store.keySet());
+        }
+
+        for (Long owner : owners) {
+            MaterializedFeed feed = store.get(owner);
+            if (feed == null || exclusionService.isExcluded(owner, userId)) continue;
+
+            Integer score = scores.get(owner);
+            ScoredCandidate candidate = score != null ? new ScoredCandidate(userId, score) : null;
+
+            // Skip positions the owner has already paged past in a continuation feed
+            if (candidate == null || !candidate.isAfter(feed.start)) {
+                feed.remove(userId);
+            } else {
+                feed.upsert(candidate, maxFeedSize);
+            }
+        }
+    }
+
+    private MaterializedFeed rebuild(Long userId, ScoredCandidate after, LongPredicate excluded) {
+        return rebuildTimer.record((Supplier<MaterializedFeed>) () -> {
+            List<ScoredCandidate> ranked = engine == MatchEngine.SQL
+                    ? sqlScoringEngine.rankTopK(userId, maxFeedSize + 1, after)
+                    : scoringEngine.rankTopK(tasteIndex.snapshot(userId), tasteIndex.candidateIds(userId),
+                            tasteIndex::snapshot, maxFeedSize + 1, 1, after, excluded);
+
+            MaterializedFeed feed = new MaterializedFeed(after);
+            ranked.stream().limit(maxFeedSize).forEach(c -> feed.upsert(c, maxFeedSize));
+            feed.truncated = ranked.size() > maxFeedSize;
+
+            (after == null ? feeds : continuations).put(userId, feed);
+            return feed;
+        });
+    }
+
+    private void publish(Runnable event) {
+        long publishedAt = System.nanoTime();
+        pendingEvents.incrementAndGet();
+
+        eventWorker.execute(() -> {
+            try {
+                event.run();
+            } catch (Exception e) {
+                logger.warn("Failed to apply feed event", e);
+            } finally {
+                pendingEvents.decrementAndGet();
+                eventLagTimer.record(System.nanoTime() - publishedAt, TimeUnit.NANOSECONDS);
+            }
+        });
+    }
+
+    private double oldestFeedAgeSeconds() {
+        synchronized (feeds) {
+            return feeds.values().stream().mapToLong(MaterializedFeed::ageSeconds).max().orElse(0);
+        }
+    }
+
+    // Package-private for tests
+    static final class MaterializedFeed {
+        private final ConcurrentSkipListSet<ScoredCandidate> ranking = new ConcurrentSkipListSet<>(ScoredCandidate.FEED_ORDER);
+        private final Map<Long, ScoredCandidate> byId = new ConcurrentHashMap<>();
+        // Exclusive lower bound, set when the feed continues a truncated one
+        private final ScoredCandidate start;
+        private final long builtAt = System.currentTimeMillis();
+        private volatile boolean truncated;
+
+        MaterializedFeed(ScoredCandidate start) {
+            this.start = start;
+        }
+
+        private boolean covers(ScoredCandidate after) {
+            return start == null || (after != null && ScoredCandidate.FEED_ORDER.compare(after, start) >= 0);
+        }
+
+        // False once a truncated feed has nothing left after the cursor, a fresh continuation must take over
+        private boolean reaches(ScoredCandidate after) {
+            return !truncated || after == null || ranking.higher(after) != null;
+        }
+
+        private long ageSeconds() {
+            return (System.currentTimeMillis() - builtAt) / 1000;
+        }
+
+        /**
+         * Inserts or re-ranks a candidate. A truncated feed ends at its last entry even after swipes
+         * shrank it, so a candidate ranked past that end is left to the continuation; adding it
+         * here would make the continuation start after it and skip everyone in between.
+         */
+        void upsert(ScoredCandidate candidate, int maxSize) {
+            remove(candidate.userId());
+            if (truncated) {
+                ScoredCandidate last = ranking.isEmpty() ? null : ranking.last();
+                if (last == null || !last.isAfter(candidate)) return;
+            }
+            ranking.add(candidate);
+            byId.put(candidate.userId(), candidate);
+
+            // Drop the weakest entry once over capacity, the feed now ends before it
+            if (byId.size() > maxSize) {
+                ScoredCandidate last = ranking.pollLast();
+                if (last != null) byId.remove(last.userId());
+                truncated = true;
+            }
+        }
+
+        void remove(Long userId) {
+            ScoredCandidate existing = byId.remove(userId);
+            if (existing != null) ranking.remove(existing);
+        }
+
+        List<ScoredCandidate> slice(ScoredCandidate after, int limit, LongPredicate excluded) {
+            NavigableSet<ScoredCandidate> tail = after == null ? ranking : ranking.tailSet(after, false);
+            List<ScoredCandidate> page = new ArrayList<>(limit);
+            for (ScoredCandidate candidate : tail) {
+                if (page.size() >= limit) break;
+                if (excluded.test(candidate.userId())) continue;
+                page.add(candidate);
+            }
+            return page;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.QueueUp.Backend.service;
+
+// Where feed scoring runs: the in-memory taste index or an overlap query in Postgres
+public enum MatchEngine {
+    INDEX,
+    SQL;
+
+    // Lenient parsing for app.matching.engine, anything unknown means the in-memory index
+    public static MatchEngine from(String value) {
+        return "sql".equalsIgnoreCase(value) ? SQL : INDEX;
+    }
+}
@@ -0,0 +1,12 @@
+package com.QueueUp.Backend.service;
+
+// How feed candidates are generated: exact posting-list walk or MinHash/LSH buckets
+public enum MatchMode {
+    EXACT,
+    APPROXIMATE;
+
+    // Lenient parsing for the ?mode= query parameter, anything unknown means exact
+    public static MatchMode from(String value) {
+        return "approximate".equalsIgnoreCase(value) ? APPROXIMATE : EXACT;
+    }
+}
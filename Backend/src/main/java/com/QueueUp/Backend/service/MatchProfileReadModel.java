@@ -0,0 +1,74 @@
+package com.QueueUp.Backend.service;
+
+import com.QueueUp.Backend.dto.MatchProfileDto;
+import com.QueueUp.Backend.dto.MatchProfileView;
+import com.QueueUp.Backend.dto.SharedItemsDto;
+import com.QueueUp.Backend.repository.MatchProfileRepository;
+import com.QueueUp.Backend.repository.SwipeEdgeRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Builds match profiles from DTO projections instead of User entity graphs.
+ * Scores and shared items come from CompatibilityCache, so the matches list costs
+ * two queries once the pairs are cached (matched ids, profile rows) and at most
+ * four more, one per taste category, to load missing taste profiles. No User is
+ * loaded into the persistence context.
+ */
+@Component
+public class MatchProfileReadModel {
+
+    private final MatchProfileRepository matchProfileRepository;
+    private final SwipeEdgeRepository swipeEdgeRepository;
+    private final CompatibilityCache compatibilityCache;
+
+    public MatchProfileReadModel(MatchProfileRepository matchProfileRepository,
+                                 SwipeEdgeRepository swipeEdgeRepository,
+                                 CompatibilityCache compatibilityCache) {
+        this.matchProfileRepository = matchProfileRepository;
+        this.swipeEdgeRepository = swipeEdgeRepository;
+        this.compatibilityCache = compatibilityCache;
+    }
+
+    /**
+     * Every match of the user with shared items filled in, best score first.
+     */
+    @Transactional(readOnly = true)
+    public List<MatchProfileDto> matchesOf(Long userId) {
+        List<Long> matchIds = swipeEdgeRepository.findMatchedIds(userId);
+        if (matchIds.isEmpty()) return new ArrayList<>();
+
+        Map<Long, PairCompatibility> compatibility = compatibilityCache.between(userId, matchIds);
+
+        return matchProfileRepository.findProfiles(matchIds).stream()
+                .map(view -> toProfile(view, compatibility.get(view.id())))
+                .sorted(Comparator.comparingInt(MatchProfileDto::getScore).reversed()
+                        .thenComparing(MatchProfileDto::getId))
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public SharedItemsDto sharedItems(Long userId, Long otherUserId) {
+        return compatibilityCache.between(userId, otherUserId).shared();
+    }
+
+    private MatchProfileDto toProfile(MatchProfileView view, PairCompatibility compatibility) {
+        SharedItemsDto shared = compatibility.shared();
+        MatchProfileDto dto = new MatchProfileDto();
+        dto.setId(view.id());
+        dto.setName(view.name());
+        dto.setImage(view.image());
+        dto.setAge(view.age());
+        dto.setBio(view.bio());
+        dto.setIsBot(view.isBot());
+        dto.setCommonArtists(shared.getCommonArtists());
+        dto.setCommonTracks(shared.getCommonTracks());
+        dto.setCommonSaved(shared.getCommonSaved());
+        dto.setCommonFollowed(shared.getCommonFollowed());
+        dto.setScore(compatibility.score());
+        return dto;
+    }
+}
@@ -1,67 +1,84 @@
 package com.QueueUp.Backend.service;
 
+import com.QueueUp.Backend.dto.FeedPageDto;
 import com.QueueUp.Backend.dto.MatchProfileDto;
-import com.QueueUp.Backend.model.Artist;
-import com.QueueUp.Backend.model.Track;
+import com.QueueUp.Backend.dto.SharedItemsDto;
+import com.QueueUp.Backend.dto.SwipeBatchDto;
+import com.QueueUp.Backend.model.SwipeDirection;
 import com.QueueUp.Backend.model.User;
+import com.QueueUp.Backend.repository.SwipeEdgeRepository;
 import com.QueueUp.Backend.repository.UserRepository;
-import com.QueueUp.Backend.socket.SocketService;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.*;
 import java.util.function.Function;
+import java.util.function.LongPredicate;
 import java.util.stream.Collectors;
 
 @Service
 public class MatchService {
 
-    private static final Logger logger = LoggerFactory.getLogger(MatchService.class);
-
     private final UserRepository userRepository;
-    private final SocketService socketService;
-
-    public MatchService(UserRepository userRepository, SocketService socketService) {
+    private final SwipeEdgeRepository swipeEdgeRepository;
+    private final OutboxService outboxService;
+    private final TasteIndex tasteIndex;
+    private final FeedStore feedStore;
+    private final ScoringEngine scoringEngine;
+    private final SwipeExclusionService exclusionService;
+    private final MatchProfileReadModel matchProfileReadModel;
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_SWIPE_BATCH = 100;
+
+    public MatchService(UserRepository userRepository,
+                        SwipeEdgeRepository swipeEdgeRepository,
+                        OutboxService outboxService,
+                        TasteIndex tasteIndex,
+                        FeedStore feedStore,
+                        ScoringEngine scoringEngine,
+                        SwipeExclusionService exclusionService,
+                        MatchProfileReadModel matchProfileReadModel) {
         this.userRepository = userRepository;
-        this.socketService = socketService;
+        this.swipeEdgeRepository = swipeEdgeRepository;
+        this.outboxService = outboxService;
+        this.tasteIndex = tasteIndex;
+        this.feedStore = feedStore;
+        this.scoringEngine = scoringEngine;
+        this.exclusionService = exclusionService;
+        this.matchProfileReadModel = matchProfileReadModel;
     }
 
     // SWIPE LOGIC
+    // A swipe is one insert into swipe_edge plus, for likes, one reciprocal lookup. Neither user is loaded
+    // unless the swipe produces a match, and only the pair is locked, not the user rows.
     @Transactional
     public void swipeRight(Long currentUserId, Long likedUserId) {
-        User currentUser = userRepository.findById(currentUserId).orElseThrow();
-        User likedUser = userRepository.findById(likedUserId).orElseThrow();
-
-        if (!currentUser.getLikes().contains(likedUser)) {
-            currentUser.getLikes().add(likedUser);
-            userRepository.save(currentUser);
-        }
-
-        if (likedUser.getLikes().contains(currentUser)) {
+        requireUser(likedUserId);
 
-            boolean alreadyMatched = currentUser.getMatches().stream()
-                    .anyMatch(u -> u.getId().equals(likedUser.getId()));
+        // Two users liking each other at once would each miss the other's uncommitted edge,
+        // so swipes within a pair are serialized until commit
+        swipeEdgeRepository.lockPair(pairKey(currentUserId, likedUserId));
+        swipeEdgeRepository.upsertSwipe(currentUserId, likedUserId, SwipeDirection.LIKE.name());
+        afterCommit(() -> recordSwipe(currentUserId, likedUserId));
 
-            if (!alreadyMatched) {
-                currentUser.getMatches().add(likedUser);
-                likedUser.getMatches().add(currentUser);
-                userRepository.save(currentUser);
-                userRepository.save(likedUser);
+        if (swipeEdgeRepository.countMutualLikes(currentUserId, likedUserId) == 2
+                && swipeEdgeRepository.markMatched(currentUserId, likedUserId) > 0) {
+            afterCommit(() -> exclusionService.recordMatch(currentUserId, likedUserId));
 
-                notifyMatch(currentUser, likedUser);
-            }
+            Map<Long, User> pair = userRepository.findAllById(List.of(currentUserId, likedUserId)).stream()
+                    .collect(Collectors.toMap(User::getId, Function.identity()));
+            notifyMatch(pair.get(currentUserId), pair.get(likedUserId));
         }
     }
 
+    // Written to the outbox in the swipe's transaction, pushed to both users after commit
     private void notifyMatch(User user1, User user2) {
-        try {
-            sendMatchNotification(user1, user2);
-            sendMatchNotification(user2, user1);
-        } catch (Exception e) {
-            logger.error("Failed to send match notification via socket", e);
-        }
+        sendMatchNotification(user1, user2);
+        sendMatchNotification(user2, user1);
     }
 
     private void sendMatchNotification(User recipient, User matchData) {
@@ -71,7 +88,7 @@ public class MatchService {
         payload.put("image", matchData.getImage());
         payload.put("isBot", matchData.getIsBot());
 
-        socketService.sendMessageToUser(
+        outboxService.enqueue(
                 recipient.getId(),
                 "newMatch",
                 payload
@@ -80,51 +97,144 @@ public class MatchService {
 
     @Transactional
     public void swipeLeft(Long currentUserId, Long dislikedUserId) {
-        User currentUser = userRepository.findById(currentUserId).orElseThrow();
-        User dislikedUser = userRepository.findById(dislikedUserId).orElseThrow();
-        if (!currentUser.getDislikes().contains(dislikedUser)) {
-            currentUser.getDislikes().add(dislikedUser);
-            userRepository.save(currentUser);
-        }
+        requireUser(dislikedUserId);
+
+        swipeEdgeRepository.upsertSwipe(currentUserId, dislikedUserId, SwipeDirection.DISLIKE.name());
+        afterCommit(() -> recordSwipe(currentUserId, dislikedUserId));
     }
 
-    // SCORING AND FETCHING
-    public List<MatchProfileDto> getUserProfiles(Long currentUserId) {
+    /**
+     * Applies a client-side queue of swipes in one transaction and returns the new matches.
+     * Unknown users and repeated swipes on the same user are skipped.
+     */
+    @Transactional
+    public List<MatchProfileDto> swipeBatch(Long currentUserId, List<SwipeBatchDto.SwipeInput> swipes) {
+        if (swipes.size() > MAX_SWIPE_BATCH) throw new RuntimeException("Too many swipes in one batch");
+
+        Map<Long, SwipeDirection> ordered = new LinkedHashMap<>();
+        for (SwipeBatchDto.SwipeInput swipe : swipes) {
+            SwipeDirection direction = SwipeDirection.from(swipe.getDirection());
+            if (swipe.getUserId() == null || direction == null || swipe.getUserId().equals(currentUserId)) continue;
+            ordered.putIfAbsent(swipe.getUserId(), direction);
+        }
+        if (ordered.isEmpty()) return new ArrayList<>();
+
+        // One existence check for the whole batch instead of a findById per swipe
+        ordered.keySet().retainAll(new HashSet<>(userRepository.findExistingIds(ordered.keySet())));
+
+        List<Long> likedIds = ordered.entrySet().stream()
+                .filter(entry -> entry.getValue() == SwipeDirection.LIKE)
+                .map(Map.Entry::getKey)
+                .toList();
+
+        // Locks are taken in key order so two overlapping batches cannot deadlock
+        likedIds.stream()
+                .map(likedId -> pairKey(currentUserId, likedId))
+                .sorted()
+                .distinct()
+                .forEach(swipeEdgeRepository::lockPair);
+
+        ordered.forEach((targetId, direction) ->
+                swipeEdgeRepository.upsertSwipe(currentUserId, targetId, direction.name()));
+        List<Long> swipedIds = List.copyOf(ordered.keySet());
+        afterCommit(() -> swipedIds.forEach(targetId -> recordSwipe(currentUserId, targetId)));
+        if (likedIds.isEmpty()) return new ArrayList<>();
+
+        // One query finds every reciprocal like in the batch
+        List<Long> newMatchIds = new ArrayList<>();
+        for (Long otherId : swipeEdgeRepository.findMutualLikeIds(currentUserId, likedIds)) {
+            if (swipeEdgeRepository.markMatched(currentUserId, otherId) > 0) {
+                newMatchIds.add(otherId);
+            }
+        }
+        if (newMatchIds.isEmpty()) return new ArrayList<>();
+        afterCommit(() -> newMatchIds.forEach(otherId -> exclusionService.recordMatch(currentUserId, otherId)));
+
         User currentUser = userRepository.findById(currentUserId).orElseThrow();
+        TasteSnapshot mine = tasteIndex.snapshot(currentUserId);
+        return userRepository.findAllById(newMatchIds).stream()
+                .map(match -> {
+                    notifyMatch(currentUser, match);
+                    return toProfile(match, mine.score(tasteIndex.snapshot(match.getId())));
+                })
+                .collect(Collectors.toList());
+    }
 
-        List<Long> excludeIds = new ArrayList<>();
-        excludeIds.add(currentUserId);
-        excludeIds.addAll(currentUser.getLikes().stream().map(User::getId).toList());
-        excludeIds.addAll(currentUser.getDislikes().stream().map(User::getId).toList());
-        excludeIds.addAll(currentUser.getMatches().stream().map(User::getId).toList());
+    private void recordSwipe(Long swiperId, Long targetId) {
+        exclusionService.recordSwipe(swiperId, targetId);
+        feedStore.onSwipe(swiperId, targetId);
+    }
 
-        List<User> candidates = userRepository.findByIdNotIn(excludeIds);
+    // The in-memory exclusions and feeds only ever reflect committed swipes, a rollback leaves them untouched
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
 
-        return candidates.stream()
-                .map(candidate -> calculateScore(currentUser, candidate))
-                .sorted((a, b) -> b.getScore() - a.getScore())
-                .collect(Collectors.toList());
+    private void requireUser(Long userId) {
+        if (!userRepository.existsById(userId)) throw new RuntimeException("User not found");
     }
 
-    public List<MatchProfileDto> getMatches(Long currentUserId) {
-        User currentUser = userRepository.findById(currentUserId).orElseThrow();
-        return currentUser.getMatches().stream()
-                .map(match -> calculateScore(currentUser, match))
-                .sorted((a, b) -> b.getScore() - a.getScore())
+    // Same advisory-lock key for (a, b) and (b, a), a collision only serializes two unrelated pairs
+    private static long pairKey(Long userA, Long userB) {
+        long low = Math.min(userA, userB);
+        long high = Math.max(userA, userB);
+        return low * 31 + high * 1_000_003L;
+    }
+
+    // SCORING AND FETCHING
+    public FeedPageDto getUserProfiles(Long currentUserId, Integer limit, String cursor, MatchMode mode) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        // Self, swiped and matched ids, filtered in memory while ranking
+        LongPredicate excluded = exclusionService.exclusionsFor(currentUserId);
+
+        // Reads are a slice of the materialized feed, the cursor is the last candidate already served
+        FeedCursor position = FeedCursor.decode(cursor);
+        ScoredCandidate after = position != null ? position.position() : null;
+
+        // Approximate mode skips the materialized feed and ranks the LSH candidates directly
+        List<ScoredCandidate> ranked = mode == MatchMode.APPROXIMATE
+                ? scoringEngine.rankTopK(tasteIndex.snapshot(currentUserId), tasteIndex.approximateCandidateIds(currentUserId),
+                        tasteIndex::snapshot, pageSize + 1, 1, after, excluded)
+                : feedStore.read(currentUserId, after, pageSize + 1, excluded);
+
+        // One extra candidate tells us whether another page exists
+        boolean hasMore = ranked.size() > pageSize;
+        List<ScoredCandidate> page = hasMore ? ranked.subList(0, pageSize) : ranked;
+
+        Map<Long, User> usersById = userRepository.findAllById(page.stream().map(ScoredCandidate::userId).toList())
+                .stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        // Score-first: the feed only carries profile basics and the score, shared items are expanded per card
+        List<MatchProfileDto> profiles = page.stream()
+                .filter(candidate -> usersById.containsKey(candidate.userId()))
+                .map(candidate -> toProfile(usersById.get(candidate.userId()), candidate.score()))
                 .collect(Collectors.toList());
+
+        String nextCursor = hasMore
+                ? new FeedCursor(page.get(page.size() - 1)).encode()
+                : null;
+
+        return new FeedPageDto(profiles, nextCursor);
     }
 
-    private MatchProfileDto calculateScore(User me, User other) {
-        List<Artist> commonArtists = findCommonItems(me.getTopArtists(), other.getTopArtists(), Artist::getSpotifyId);
-        List<Track> commonTracks = findCommonItems(me.getTopTracks(), other.getTopTracks(), Track::getSpotifyId);
-        List<Track> commonSaved = findCommonItems(me.getSavedTracks(), other.getSavedTracks(), Track::getSpotifyId);
-        List<Artist> commonFollowed = findCommonItems(me.getFollowedArtists(), other.getFollowedArtists(), Artist::getSpotifyId);
+    // The matches sidebar and chat header show shared items for every match, so they come from the read model
+    public List<MatchProfileDto> getMatches(Long currentUserId) {
+        return matchProfileReadModel.matchesOf(currentUserId);
+    }
 
-        int score = (commonArtists.size() * 3) +
-                (commonTracks.size() * 2) +
-                (commonSaved.size()) +
-                (commonFollowed.size());
+    // Details for the single card the user is looking at
+    public SharedItemsDto getSharedItems(Long currentUserId, Long otherUserId) {
+        return matchProfileReadModel.sharedItems(currentUserId, otherUserId);
+    }
 
+    private MatchProfileDto toProfile(User other, int score) {
         MatchProfileDto dto = new MatchProfileDto();
         dto.setId(other.getId());
         dto.setName(other.getName());
@@ -133,35 +243,6 @@ public class MatchService {
         dto.setBio(other.getBio());
         dto.setScore(score);
         dto.setIsBot(other.getIsBot());
-
-        dto.setCommonArtists(toDtoList(commonArtists, Artist::getSpotifyId, Artist::getName, Artist::getImageUrl));
-        dto.setCommonTracks(toDtoList(commonTracks, Track::getSpotifyId, Track::getName, Track::getImageUrl));
-        dto.setCommonSaved(toDtoList(commonSaved, Track::getSpotifyId, Track::getName, Track::getImageUrl));
-        dto.setCommonFollowed(toDtoList(commonFollowed, Artist::getSpotifyId, Artist::getName, Artist::getImageUrl));
-
         return dto;
     }
-
-    // HELPERS
-    // Generic method to find common items between two sets based on a unique ID.
-    private <T> List<T> findCommonItems(Set<T> set1, Set<T> set2, Function<T, String> idExtractor) {
-        if (set1 == null || set2 == null) return new ArrayList<>();
-        Set<String> ids1 = set1.stream().map(idExtractor).collect(Collectors.toSet());
-        return set2.stream()
-                .filter(item -> ids1.contains(idExtractor.apply(item)))
-                .collect(Collectors.toList());
-    }
-
-    // Generic method to convert any list of music items into frontend DTOs.
-    private <T> List<MatchProfileDto.ItemDto> toDtoList(List<T> items,
-                                                        Function<T, String> idMapper,
-                                                        Function<T, String> nameMapper,
-                                                        Function<T, String> imageMapper) {
-        return items.stream()
-                .map(item -> new MatchProfileDto.ItemDto(
-                        idMapper.apply(item),
-                        nameMapper.apply(item),
-                        imageMapper.apply(item)))
-                .collect(Collectors.toList());
-    }
-}
\ No newline at end of file
+}
@@ -1,38 +1,69 @@
 package com.QueueUp.Backend.service;
 
+import com.QueueUp.Backend.dto.ConversationPageDto;
+import com.QueueUp.Backend.dto.InboxEntryView;
 import com.QueueUp.Backend.dto.SendMessageDto;
 import com.QueueUp.Backend.model.*;
+import com.QueueUp.Backend.repository.ConversationSummaryRepository;
 import com.QueueUp.Backend.repository.MessageRepository;
 import com.QueueUp.Backend.repository.UserRepository;
 import com.QueueUp.Backend.socket.SocketService;
-import com.cloudinary.Cloudinary;
-import com.cloudinary.utils.ObjectUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.io.IOException;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.time.LocalDateTime;
+import java.util.*;
 
 @Service
 public class MessageService {
 
+    private static final Logger logger = LoggerFactory.getLogger(MessageService.class);
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int BOT_CONTEXT_SIZE = 10;
+    private static final int SNIPPET_LENGTH = 100;
+
     private final MessageRepository messageRepository;
+    private final ConversationSummaryRepository conversationSummaryRepository;
     private final UserRepository userRepository;
-    private final Cloudinary cloudinary;
+    private final AttachmentUploadPipeline uploadPipeline;
+    private final S3StreamUploader s3StreamUploader;
+    private final AttachmentBlobStore attachmentBlobStore;
+    private final AttachmentDerivatives attachmentDerivatives;
     private final SocketService socketService;
     private final OpenAIService openAiService;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
 
     public MessageService(MessageRepository messageRepository,
+                          ConversationSummaryRepository conversationSummaryRepository,
                           UserRepository userRepository,
-                          Cloudinary cloudinary,
-                          SocketService socketService, OpenAIService openAiService) {
+                          AttachmentUploadPipeline uploadPipeline,
+                          S3StreamUploader s3StreamUploader,
+                          AttachmentBlobStore attachmentBlobStore,
+                          AttachmentDerivatives attachmentDerivatives,
+                          SocketService socketService, OpenAIService openAiService,
+                          OutboxService outboxService,
+                          PlatformTransactionManager transactionManager) {
         this.messageRepository = messageRepository;
+        this.conversationSummaryRepository = conversationSummaryRepository;
         this.userRepository = userRepository;
-        this.cloudinary = cloudinary;
+        this.uploadPipeline = uploadPipeline;
+        this.s3StreamUploader = s3StreamUploader;
+        this.attachmentBlobStore = attachmentBlobStore;
+        this.attachmentDerivatives = attachmentDerivatives;
         this.socketService = socketService;
         this.openAiService = openAiService;
+        this.outboxService = outboxService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Transactional
@@ -53,6 +84,7 @@ public class MessageService {
         }
 
         // Process Attachments
+        Map<Attachment, String> pendingData = new IdentityHashMap<>();
         if (request.getAttachments() != null) {
             for (SendMessageDto.AttachmentInput attInput : request.getAttachments()) {
                 Attachment attachment = new Attachment();
@@ -61,39 +93,80 @@ public class MessageService {
                 attachment.setCategory(attInput.getCategory());
                 attachment.setKey(attInput.getKey() != null ? attInput.getKey() : "");
 
-                // If URL exists use it, else if Base64 exists upload it
+                // If URL exists use it, else if Base64 exists upload it once the message is committed
                 if (attInput.getUrl() != null && !attInput.getUrl().isEmpty()) {
                     attachment.setUrl(attInput.getUrl());
                 } else if (attInput.getData() != null && attInput.getData().startsWith("data:")) {
-                    // Cloudinary Upload
-                    try {
-                        @SuppressWarnings("unchecked")
-                        Map<String, Object> uploadRes = cloudinary.uploader().upload(attInput.getData(), ObjectUtils.asMap(
-                                "folder", "chat_attachments",
-                                "resource_type", "auto"
-                        ));
-                        attachment.setUrl((String) uploadRes.get("secure_url"));
-                        attachment.setKey((String) uploadRes.get("public_id"));
-                    } catch (IOException e) {
-                        throw new RuntimeException("Failed to upload attachment", e);
+                    attachment.setStatus(AttachmentStatus.PENDING);
+                    pendingData.put(attachment, attInput.getData());
+                } else if (!attachment.getKey().isEmpty()) {
+                    // Handle from the streaming upload endpoint, or a deduplicated blob found by its hash
+                    if (s3StreamUploader.isOwnedBy(attachment.getKey(), senderId)) {
+                        attachment.setUrl(s3StreamUploader.publicUrl(attachment.getKey()));
+                    } else {
+                        attachment.setUrl(attachmentBlobStore.findByKeyFor(senderId, attachment.getKey())
+                                .orElseThrow(() -> new RuntimeException("Attachment was not uploaded by the sender"))
+                                .getUrl());
                     }
+                    attachmentBlobStore.share(receiver.getId(), attachment.getKey());
                 }
 
+                // Thumbnails that are only a URL transformation go out with the newMessage payload
+                attachmentDerivatives.applyUrlDerivatives(attachment);
+
                 // Link attachment to message
                 attachment.setMessage(message);
                 message.getAttachments().add(attachment);
             }
         }
 
-        // Save to DB
+        // Save to DB, with the inbox summary in the same transaction
         Message savedMessage = messageRepository.save(message);
+        updateSummary(savedMessage);
 
-        // Notify Receiver via Socket
+        // Notify Receiver via Socket (through the outbox, delivered after commit)
         sendSocketNotification(savedMessage);
 
-        // if replying to a bot
+        // Pending attachments are uploaded in the background, the rows exist by then
+        if (!pendingData.isEmpty()) {
+            List<AttachmentUploadPipeline.PendingUpload> uploads = new ArrayList<>();
+            pendingData.forEach((attachment, data) -> uploads.add(new AttachmentUploadPipeline.PendingUpload(
+                    attachment.getId(), savedMessage.getId(), senderId, receiver.getId(),
+                    attachment.getCategory(), data)));
+
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    uploads.forEach(uploadPipeline::submit);
+                }
+            });
+        }
+
+        // S3 images get their thumbnails rendered in the background
+        List<AttachmentDerivatives.DerivativeJob> derivativeJobs = new ArrayList<>();
+        for (Attachment attachment : savedMessage.getAttachments()) {
+            if (attachmentDerivatives.needsRendering(attachment)) {
+                derivativeJobs.add(new AttachmentDerivatives.DerivativeJob(attachment.getId(), savedMessage.getId(),
+                        senderId, receiver.getId(), attachment.getKey()));
+            }
+        }
+        if (!derivativeJobs.isEmpty()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    derivativeJobs.forEach(attachmentDerivatives::submit);
+                }
+            });
+        }
+
+        // if replying to a bot, start only once the message is committed so the bot can read it
         if (Boolean.TRUE.equals(receiver.getIsBot())) {
-            triggerBotReply(receiver, sender);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    triggerBotReply(receiver, sender);
+                }
+            });
         }
 
         return savedMessage;
@@ -125,13 +198,10 @@ public class MessageService {
                 // This keeps the bubble up during the API generation time
                 socketService.sendMessageToUser(realUser.getId(), "typing", typingPayload);
 
-                // 4. Fetch conversation history for context
-                List<Message> history = messageRepository.findConversation(realUser.getId(), bot.getId());
-
-                // Limit to last 10 for AI context window
-                if (history.size() > 10) {
-                    history = history.subList(history.size() - 10, history.size());
-                }
+                // 4. Fetch the last 10 messages for the AI context window, oldest first
+                List<Message> history = new ArrayList<>(messageRepository.findLatestOfConversation(
+                        Message.conversationKey(realUser.getId(), bot.getId()), PageRequest.of(0, BOT_CONTEXT_SIZE)));
+                Collections.reverse(history);
 
                 // 5. Generate Reply
                 String replyContent = openAiService.generateChatReply(bot.getName(), bot.getBio(), history);
@@ -143,17 +213,21 @@ public class MessageService {
                 botMsg.setContent(replyContent);
                 botMsg.setCreatedAt(java.time.LocalDateTime.now());
 
-                Message savedBotMsg = messageRepository.save(botMsg);
-
-                // 7. Send Socket Event
-                sendSocketNotification(savedBotMsg);
+                // 7. Save and queue the socket event in one transaction
+                transactionTemplate.executeWithoutResult(status -> {
+                    Message savedBotMsg = messageRepository.save(botMsg);
+                    updateSummary(savedBotMsg);
+                    sendSocketNotification(savedBotMsg);
+                });
 
-            } catch (Exception ignored) {
+            } catch (Exception e) {
+                logger.warn("Bot reply failed", e);
             }
         }).start();
     }
 
     // NEW HELPER METHOD TO REMOVE DUPLICATION
+    // Must run inside the transaction that saves the message
     private void sendSocketNotification(Message message) {
         Map<String, Object> payload = new HashMap<>();
         payload.put("_id", message.getId());
@@ -163,10 +237,67 @@ public class MessageService {
         payload.put("createdAt", message.getCreatedAt().toString());
         payload.put("attachments", message.getAttachments());
 
-        socketService.sendMessageToUser(message.getReceiver().getId(), "newMessage", payload);
+        outboxService.enqueue(message.getReceiver().getId(), "newMessage", payload);
     }
 
-    public List<Message> getConversation(Long currentUserId, Long otherUserId) {
-        return messageRepository.findConversation(currentUserId, otherUserId);
+    // Must run inside the transaction that saves the message
+    private void updateSummary(Message message) {
+        Long senderId = message.getSender().getId();
+        Long receiverId = message.getReceiver().getId();
+        conversationSummaryRepository.recordMessage(message.getConversationKey(),
+                Math.min(senderId, receiverId), Math.max(senderId, receiverId),
+                message.getId(), senderId, receiverId, snippetOf(message), message.getCreatedAt());
+    }
+
+    private static String snippetOf(Message message) {
+        return snippetOf(message.getContent(), !message.getAttachments().isEmpty());
+    }
+
+    // Inbox preview of a message, DatabaseMigrations backfills old summaries with it too
+    public static String snippetOf(String content, boolean hasAttachments) {
+        if (content != null && !content.isBlank()) {
+            String text = content.strip();
+            return text.length() <= SNIPPET_LENGTH ? text : text.substring(0, SNIPPET_LENGTH - 1) + "…";
+        }
+        return hasAttachments ? "Sent an attachment" : "";
+    }
+
+    // One row per conversation, never touches the message table
+    @Transactional(readOnly = true)
+    public List<InboxEntryView> getInbox(Long currentUserId) {
+        return conversationSummaryRepository.findInbox(currentUserId);
+    }
+
+    @Transactional
+    public void markRead(Long currentUserId, Long otherUserId) {
+        conversationSummaryRepository.markRead(Message.conversationKey(currentUserId, otherUserId), currentUserId);
+    }
+
+    /**
+     * The newest page of the conversation, or the page just before message {@code before}.
+     * Throws IllegalArgumentException if {@code before} is not a message of this conversation.
+     */
+    @Transactional(readOnly = true)
+    public ConversationPageDto getConversation(Long currentUserId, Long otherUserId, Long before, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        // One extra message tells us whether an older page exists
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        String conversationKey = Message.conversationKey(currentUserId, otherUserId);
+        List<Message> newestFirst;
+        if (before == null) {
+            newestFirst = messageRepository.findLatestOfConversation(conversationKey, page);
+        } else {
+            LocalDateTime beforeCreatedAt = messageRepository.findCreatedAtInConversation(before, conversationKey)
+                    .orElseThrow(() -> new IllegalArgumentException("Message not found in this conversation"));
+            newestFirst = messageRepository.findConversationBefore(conversationKey, beforeCreatedAt, before, page);
+        }
+
+        boolean hasMore = newestFirst.size() > pageSize;
+        List<Message> messages = new ArrayList<>(hasMore ? newestFirst.subList(0, pageSize) : newestFirst);
+        Collections.reverse(messages);
+
+        Long nextBefore = hasMore ? messages.get(0).getId() : null;
+        return new ConversationPageDto(messages, nextBefore);
     }
 }
\ No newline at end of file
@@ -0,0 +1,108 @@
+package com.QueueUp.Backend.service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Approximate candidate generation for very large user bases. Each user's
+ * artist and track ids are reduced to a MinHash signature, and the signature
+ * is split into bands that are bucketed (locality-sensitive hashing). Users
+ * landing in a shared bucket for any band are likely to have a high Jaccard
+ * similarity, and only those are scored exactly.
+ */
+public class MinHashIndex {
+
+    // Mersenne prime 2^31 - 1 for the universal hash family
+    private static final long PRIME = 2147483647L;
+
+    private final int bands;
+    private final int rows;
+    private final long[] hashA;
+    private final long[] hashB;
+
+    // band -> band hash -> user ids
+    private final List<Map<Long, Set<Long>>> buckets;
+    private final Map<Long, int[]> signatures = new ConcurrentHashMap<>();
+
+    public MinHashIndex(int bands, int rows, long seed) {
+        this.bands = bands;
+        this.rows = rows;
+
+        int numHashes = bands * rows;
+        Random random = new Random(seed);
+        this.hashA = new long[numHashes];
+        this.hashB = new long[numHashes];
+        for (int i = 0; i < numHashes; i++) {
+            hashA[i] = 1 + random.nextInt(Integer.MAX_VALUE - 1);
+            hashB[i] = random.nextInt(Integer.MAX_VALUE);
+        }
+
+        this.buckets = new ArrayList<>(bands);
+        for (int band = 0; band < bands; band++) {
+            buckets.add(new ConcurrentHashMap<>());
+        }
+    }
+
+    public void index(Long userId, TasteSnapshot snapshot) {
+        remove(userId);
+        if (snapshot.isEmpty()) return;
+
+        int[] signature = signature(snapshot);
+        for (int band = 0; band < bands; band++) {
+            buckets.get(band).computeIfAbsent(bandKey(signature, band), k -> ConcurrentHashMap.newKeySet()).add(userId);
+        }
+        signatures.put(userId, signature);
+    }
+
+    public void remove(Long userId) {
+        int[] previous = signatures.remove(userId);
+        if (previous == null) return;
+
+        for (int band = 0; band < bands; band++) {
+            buckets.get(band).computeIfPresent(bandKey(previous, band), (k, members) -> {
+                members.remove(userId);
+                return members.isEmpty() ? null : members;
+            });
+        }
+    }
+
+    /**
+     * Users sharing at least one band bucket with the given user, excluding the user.
+     */
+    public Set<Long> candidates(Long userId) {
+        int[] signature = signatures.get(userId);
+        if (signature == null) return new HashSet<>();
+
+        Set<Long> candidates = new HashSet<>();
+        for (int band = 0; band < bands; band++) {
+            Set<Long> members = buckets.get(band).get(bandKey(signature, band));
+            if (members != null) candidates.addAll(members);
+        }
+        candidates.remove(userId);
+        return candidates;
+    }
+
+    // One min-hash per hash function over the union of all four categories
+    private int[] signature(TasteSnapshot snapshot) {
+        int[] signature = new int[hashA.length];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+
+        for (TasteCategory category : TasteCategory.values()) {
+            for (int itemId : snapshot.get(category)) {
+                for (int i = 0; i < signature.length; i++) {
+                    int hash = (int) ((hashA[i] * itemId + hashB[i]) % PRIME);
+                    if (hash < signature[i]) signature[i] = hash;
+                }
+            }
+        }
+        return signature;
+    }
+
+    private long bandKey(int[] signature, int band) {
+        long key = 1125899906842597L;
+        for (int row = band * rows; row < (band + 1) * rows; row++) {
+            key = 31 * key + signature[row];
+        }
+        return key;
+    }
+}
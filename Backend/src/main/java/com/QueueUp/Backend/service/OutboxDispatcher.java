@@ -0,0 +1,186 @@
+package com.QueueUp.Backend.service;
+
+import com.QueueUp.Backend.model.OutboxEvent;
+import com.QueueUp.Backend.repository.OutboxEventRepository;
+import com.QueueUp.Backend.socket.SocketService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Read side of the transactional outbox. A single worker claims committed events of
+ * the users connected to this instance, takes a short lease on them (claimed_by /
+ * claimed_at, so several instances can share the table without sending the same
+ * rows), pushes them through SocketService grouped per recipient, and marks them
+ * dispatched only once they reached an open session. Events whose write failed are
+ * retried when their lease expires.
+ * <p>
+ * Delivery is at-least-once, not exactly-once: a crash or an expired lease between
+ * the write and markDispatched sends an event again. Every socket message carries
+ * its outbox id and the client drops ids it has already seen. Events for a user who
+ * is not connected anywhere within the delivery window are never sent.
+ */
+@Component
+public class OutboxDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final SocketService socketService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.outbox.retention-hours:24}")
+    private long retentionHours;
+
+    @Value("${app.outbox.lease-seconds:30}")
+    private long leaseSeconds;
+
+    // Older undelivered events are stale, the client reloads that state when it reconnects
+    @Value("${app.outbox.delivery-window-seconds:120}")
+    private long deliveryWindowSeconds;
+
+    // Keeps the recipient IN list of a claim query a sane size with many connections
+    private static final int RECIPIENT_CHUNK = 1000;
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "outbox-dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Collapses bursts of signals into a single pending drain
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+    private final Timer deliveryLagTimer;
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                            SocketService socketService,
+                            ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.socketService = socketService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        this.deliveryLagTimer = Timer.builder("queueup.outbox.delivery.lag")
+                .description("Delay between an outbox event being written and pushed to the socket")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdown();
+    }
+
+    public void signal() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            worker.execute(() -> {
+                drainScheduled.set(false);
+                drain();
+            });
+        }
+    }
+
+    // Safety net for signals lost to a crash or sent by another instance
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:5000}")
+    public void poll() {
+        signal();
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.cleanup-interval-ms:3600000}")
+    public void purgeDispatched() {
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxEventRepository.deleteCreatedBefore(LocalDateTime.now().minusHours(retentionHours)));
+        if (deleted != null && deleted > 0) {
+            logger.info("Purged {} old outbox events", deleted);
+        }
+    }
+
+    private void drain() {
+        try {
+            List<Long> recipients = new ArrayList<>(socketService.connectedUserIds());
+            for (int from = 0; from < recipients.size(); from += RECIPIENT_CHUNK) {
+                drain(recipients.subList(from, Math.min(from + RECIPIENT_CHUNK, recipients.size())));
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to drain the outbox", e);
+        }
+    }
+
+    private void drain(List<Long> recipients) {
+        List<OutboxEvent> batch;
+        do {
+            LocalDateTime now = LocalDateTime.now();
+            batch = transactionTemplate.execute(status -> {
+                List<OutboxEvent> claimed = outboxEventRepository.findClaimable(recipients,
+                        now.minusSeconds(deliveryWindowSeconds), now.minusSeconds(leaseSeconds), batchSize);
+                if (!claimed.isEmpty()) {
+                    outboxEventRepository.lease(claimed.stream().map(OutboxEvent::getId).toList(), instanceId, now);
+                }
+                return claimed;
+            });
+            if (batch == null || batch.isEmpty()) return;
+
+            // Events of a recipient whose write failed keep their lease, so they are retried once it
+            // expires instead of in this loop, and the other recipients are not held back
+            List<Long> delivered = deliver(batch);
+            if (!delivered.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status ->
+                        outboxEventRepository.markDispatched(delivered, instanceId, LocalDateTime.now()));
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    // Outside any transaction: socket I/O never holds a database connection.
+    // Returns the ids that are done, unreadable events included so they are not retried forever.
+    private List<Long> deliver(List<OutboxEvent> batch) {
+        List<Long> done = new ArrayList<>();
+        Map<Long, List<OutboxEvent>> byRecipient = new LinkedHashMap<>();
+        Map<Long, List<Map<String, Object>>> messagesByRecipient = new HashMap<>();
+        for (OutboxEvent event : batch) {
+            try {
+                JsonNode payload = objectMapper.readTree(event.getPayload());
+                messagesByRecipient.computeIfAbsent(event.getRecipientId(), k -> new ArrayList<>())
+                        .add(Map.of("id", event.getId(), "type", event.getEventType(), "payload", payload));
+                byRecipient.computeIfAbsent(event.getRecipientId(), k -> new ArrayList<>()).add(event);
+            } catch (IOException e) {
+                logger.error("Dropping unreadable outbox event {}", event.getId(), e);
+                done.add(event.getId());
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        byRecipient.forEach((recipientId, events) -> {
+            if (!socketService.sendMessagesToUser(recipientId, messagesByRecipient.get(recipientId))) return;
+            for (OutboxEvent event : events) {
+                done.add(event.getId());
+                deliveryLagTimer.record(Duration.between(event.getCreatedAt(), now).toNanos(), TimeUnit.NANOSECONDS);
+            }
+        });
+        return done;
+    }
+}
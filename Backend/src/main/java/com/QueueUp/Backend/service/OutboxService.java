@@ -0,0 +1,54 @@
+package com.QueueUp.Backend.service;
+
+import com.QueueUp.Backend.model.OutboxEvent;
+import com.QueueUp.Backend.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Write side of the transactional outbox. Events are stored with the business
+ * change that produces them, so a rolled-back transaction never notifies anyone
+ * and no socket I/O happens while the request holds a database connection.
+ */
+@Service
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxDispatcher dispatcher;
+    private final ObjectMapper objectMapper;
+
+    public OutboxService(OutboxEventRepository outboxEventRepository,
+                         OutboxDispatcher dispatcher,
+                         ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.dispatcher = dispatcher;
+        this.objectMapper = objectMapper;
+    }
+
+    // Must join the caller's transaction, the event commits or rolls back with it
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(Long recipientId, String eventType, Object payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setRecipientId(recipientId);
+        event.setEventType(eventType);
+        try {
+            event.setPayload(objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize " + eventType + " event", e);
+        }
+        outboxEventRepository.save(event);
+
+        // Wake the dispatcher right after commit instead of waiting for its next poll
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                dispatcher.signal();
+            }
+        });
+    }
+}
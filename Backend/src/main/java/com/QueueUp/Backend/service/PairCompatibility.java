@@ -0,0 +1,16 @@
+package com.QueueUp.Backend.service;
+
+import com.QueueUp.Backend.dto.SharedItemsDto;
+
+// Score and shared items of one pair of users, immutable once cached
+public record PairCompatibility(int score, SharedItemsDto shared) {
+
+    // The shared items are exactly the overlap the scoring formula counts
+    public static PairCompatibility of(SharedItemsDto shared) {
+        int score = shared.getCommonArtists().size() * TasteCategory.TOP_ARTISTS.getWeight()
+                + shared.getCommonTracks().size() * TasteCategory.TOP_TRACKS.getWeight()
+                + shared.getCommonSaved().size() * TasteCategory.SAVED_TRACKS.getWeight()
+                + shared.getCommonFollowed().size() * TasteCategory.FOLLOWED_ARTISTS.getWeight();
+        return new PairCompatibility(score, shared);
+    }
+}
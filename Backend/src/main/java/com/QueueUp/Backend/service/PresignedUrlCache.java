@@ -0,0 +1,106 @@
+package com.QueueUp.Backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reuses presigned GET URLs instead of signing one per request. The requested
+ * lifetime is rounded up to an expiry bucket, URLs are signed for the bucket and
+ * cached for half of it. Every URL handed out is valid for at least half its bucket
+ * and never longer than the bucket, so never past S3Controller's 15 minute cap.
+ * Published as cache=presignedDownloads.
+ */
+@Component
+public class PresignedUrlCache {
+
+    // Lifetimes clients may ask for, in seconds; S3Controller caps requests at 15 minutes
+    private static final int[] EXPIRY_BUCKETS = {60, 300, 900};
+
+    private final S3Presigner s3Presigner;
+    private final String bucketName;
+    private final Cache<UrlKey, String> cache;
+
+    public PresignedUrlCache(S3Presigner s3Presigner,
+                             @Value("${aws.s3-bucket}") String bucketName,
+                             @Value("${app.cache.presigned-downloads.max-size:10000}") long maxSize,
+                             MeterRegistry meterRegistry) {
+        this.s3Presigner = s3Presigner;
+        this.bucketName = bucketName;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<UrlKey, String>() {
+                    @Override
+                    public long expireAfterCreate(UrlKey key, String url, long currentTime) {
+                        return TimeUnit.SECONDS.toNanos(key.bucketSeconds()) / 2;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(UrlKey key, String url, long currentTime, long currentDuration) {
+                        return TimeUnit.SECONDS.toNanos(key.bucketSeconds()) / 2;
+                    }
+
+                    @Override
+                    public long expireAfterRead(UrlKey key, String url, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "presignedDownloads");
+    }
+
+    public String urlFor(String key, int expiresInSeconds) {
+        return cache.get(new UrlKey(key, bucketOf(expiresInSeconds)), this::sign);
+    }
+
+    // Object key to URL, keys not cached yet are signed in the same call
+    public Map<String, String> urlsFor(Collection<String> keys, int expiresInSeconds) {
+        int bucket = bucketOf(expiresInSeconds);
+        Set<UrlKey> urlKeys = new LinkedHashSet<>();
+        keys.forEach(key -> urlKeys.add(new UrlKey(key, bucket)));
+
+        Map<String, String> urls = new LinkedHashMap<>();
+        cache.getAll(urlKeys, missing -> {
+            Map<UrlKey, String> signed = new HashMap<>();
+            missing.forEach(urlKey -> signed.put(urlKey, sign(urlKey)));
+            return signed;
+        }).forEach((urlKey, url) -> urls.put(urlKey.key(), url));
+        return urls;
+    }
+
+    static int bucketOf(int expiresInSeconds) {
+        for (int bucket : EXPIRY_BUCKETS) {
+            if (expiresInSeconds <= bucket) return bucket;
+        }
+        return EXPIRY_BUCKETS[EXPIRY_BUCKETS.length - 1];
+    }
+
+    private String sign(UrlKey urlKey) {
+        GetObjectRequest objectRequest = GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(urlKey.key())
+                .build();
+
+        GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
+                .signatureDuration(Duration.ofSeconds(urlKey.bucketSeconds()))
+                .getObjectRequest(objectRequest)
+                .build();
+
+        return s3Presigner.presignGetObject(presignRequest).url().toString();
+    }
+
+    private record UrlKey(String key, int bucketSeconds) {
+    }
+}
@@ -0,0 +1,133 @@
+package com.QueueUp.Backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.UploadPartPresignRequest;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Presigned S3 multipart uploads for large attachments. The client starts an upload,
+ * asks for presigned URLs for any set of part numbers, PUTs the parts directly to S3
+ * in parallel and completes with the ETags it got back. Failed parts are simply
+ * presigned and sent again, and listParts tells a resumed client what S3 already has.
+ * Every call checks that the key is under the caller's prefix.
+ */
+@Component
+public class S3MultipartUploads {
+
+    // S3 limits a multipart upload to part numbers 1..10000
+    private static final int MAX_PART_NUMBER = 10_000;
+
+    private final S3Client s3Client;
+    private final S3Presigner s3Presigner;
+    private final S3StreamUploader s3StreamUploader;
+    private final String bucketName;
+    private final Duration partUrlTtl;
+    private final int partSize;
+
+    public S3MultipartUploads(S3Client s3Client,
+                              S3Presigner s3Presigner,
+                              S3StreamUploader s3StreamUploader,
+                              @Value("${aws.s3-bucket}") String bucketName,
+                              @Value("${app.uploads.multipart.part-url-ttl-seconds:900}") long partUrlTtlSeconds,
+                              @Value("${app.uploads.multipart.part-size:8388608}") int partSize) {
+        this.s3Client = s3Client;
+        this.s3Presigner = s3Presigner;
+        this.s3StreamUploader = s3StreamUploader;
+        this.bucketName = bucketName;
+        this.partUrlTtl = Duration.ofSeconds(partUrlTtlSeconds);
+        this.partSize = partSize;
+    }
+
+    // partSize is the size clients should cut the file into, only the last part may be smaller
+    public record Started(String key, String uploadId, int partSize) {
+    }
+
+    public record UploadedPart(int partNumber, String eTag) {
+    }
+
+    public Started create(Long userId, String name, String contentType) {
+        String key = s3StreamUploader.keyFor(userId, name);
+        String uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .contentType(contentType)
+                .build()).uploadId();
+        return new Started(key, uploadId, partSize);
+    }
+
+    // Part number to presigned PUT URL, signing is local so a whole batch costs no S3 call
+    public Map<Integer, String> presignParts(Long userId, String key, String uploadId, Collection<Integer> partNumbers) {
+        requireOwner(userId, key);
+        Map<Integer, String> urls = new TreeMap<>();
+        for (Integer partNumber : partNumbers) {
+            if (partNumber == null || partNumber < 1 || partNumber > MAX_PART_NUMBER) {
+                throw new RuntimeException("Part numbers must be between 1 and " + MAX_PART_NUMBER);
+            }
+            UploadPartRequest partRequest = UploadPartRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .partNumber(partNumber)
+                    .build();
+            urls.put(partNumber, s3Presigner.presignUploadPart(UploadPartPresignRequest.builder()
+                    .signatureDuration(partUrlTtl)
+                    .uploadPartRequest(partRequest)
+                    .build()).url().toString());
+        }
+        return urls;
+    }
+
+    public List<UploadedPart> listParts(Long userId, String key, String uploadId) {
+        requireOwner(userId, key);
+        List<UploadedPart> parts = new ArrayList<>();
+        s3Client.listPartsPaginator(ListPartsRequest.builder()
+                        .bucket(bucketName)
+                        .key(key)
+                        .uploadId(uploadId)
+                        .build())
+                .parts()
+                .forEach(part -> parts.add(new UploadedPart(part.partNumber(), part.eTag())));
+        return parts;
+    }
+
+    // Returns the URL of the assembled object
+    public String complete(Long userId, String key, String uploadId, List<UploadedPart> parts) {
+        requireOwner(userId, key);
+        if (parts == null || parts.isEmpty()) {
+            throw new RuntimeException("At least one part is required");
+        }
+
+        List<CompletedPart> completed = parts.stream()
+                .sorted(Comparator.comparingInt(UploadedPart::partNumber))
+                .map(part -> CompletedPart.builder().partNumber(part.partNumber()).eTag(part.eTag()).build())
+                .toList();
+        s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .uploadId(uploadId)
+                .multipartUpload(CompletedMultipartUpload.builder().parts(completed).build())
+                .build());
+        return s3StreamUploader.publicUrl(key);
+    }
+
+    public void abort(Long userId, String key, String uploadId) {
+        requireOwner(userId, key);
+        s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .uploadId(uploadId)
+                .build());
+    }
+
+    private void requireOwner(Long userId, String key) {
+        if (!s3StreamUploader.isOwnedBy(key, userId)) {
+            throw new RuntimeException("Upload does not belong to the user");
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.QueueUp.Backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams an upload into S3 through one fixed-size part buffer, so an upload holds
+ * part-size bytes of heap however large the file is. A body that fits in the first
+ * part is stored with a single PUT, anything larger becomes a multipart upload that
+ * is aborted if the stream or S3 fails halfway.
+ */
+@Component
+public class S3StreamUploader {
+
+    // S3 rejects multipart parts below 5 MiB, except the last one
+    private static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+
+    private final S3Client s3Client;
+    private final int partSize;
+    private final long maxSize;
+
+    @Value("${aws.s3-bucket}")
+    private String bucketName;
+
+    @Value("${aws.region}")
+    private String region;
+
+    @Value("${aws.endpoint:}")
+    private String endpoint;
+
+    public S3StreamUploader(S3Client s3Client,
+                            @Value("${app.uploads.part-size:5242880}") int partSize,
+                            @Value("${app.uploads.max-size:104857600}") long maxSize) {
+        this.s3Client = s3Client;
+        this.partSize = Math.max(partSize, MIN_PART_SIZE);
+        this.maxSize = maxSize;
+    }
+
+    // Where the chat stores objects a user uploads, the user id prefix marks ownership
+    public String keyFor(Long userId, String name) {
+        return userId + "/chat_attachments/" + System.currentTimeMillis() + "_" + name;
+    }
+
+    public boolean isOwnedBy(String key, Long userId) {
+        return key != null && key.startsWith(userId + "/chat_attachments/") && !key.contains("..");
+    }
+
+    public String publicUrl(String key) {
+        if (!endpoint.isBlank()) {
+            return endpoint.replaceAll("/+$", "") + "/" + bucketName + "/" + key;
+        }
+        return "https://" + bucketName + ".s3." + region + ".amazonaws.com/" + key;
+    }
+
+    /**
+     * Copies the stream to the key and returns the number of bytes stored.
+     * Throws if the stream is larger than app.uploads.max-size.
+     */
+    public long upload(InputStream in, String key, String contentType) throws IOException {
+        byte[] buffer = new byte[partSize];
+        int read = in.readNBytes(buffer, 0, partSize);
+
+        if (read < partSize) {
+            s3Client.putObject(PutObjectRequest.builder()
+                            .bucket(bucketName)
+                            .key(key)
+                            .contentType(contentType)
+                            .build(),
+                    body(buffer, read));
+            return read;
+        }
+
+        String uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .contentType(contentType)
+                .build()).uploadId();
+
+        try {
+            List<CompletedPart> parts = new ArrayList<>();
+            long total = 0;
+            while (read > 0) {
+                total += read;
+                if (total > maxSize) {
+                    throw new RuntimeException("Upload exceeds the maximum size of " + maxSize + " bytes");
+                }
+
+                int partNumber = parts.size() + 1;
+                String eTag = s3Client.uploadPart(UploadPartRequest.builder()
+                                .bucket(bucketName)
+                                .key(key)
+                                .uploadId(uploadId)
+                                .partNumber(partNumber)
+                                .build(),
+                        body(buffer, read)).eTag();
+                parts.add(CompletedPart.builder().partNumber(partNumber).eTag(eTag).build());
+
+                // Only uploaded parts are sent, so the buffer can be refilled in place
+                read = in.readNBytes(buffer, 0, partSize);
+            }
+
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                    .build());
+            return total;
+        } catch (IOException | RuntimeException e) {
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .build());
+            throw e;
+        }
+    }
+
+    public void delete(String key) {
+        s3Client.deleteObject(DeleteObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .build());
+    }
+
+    // Reads the buffer in place instead of copying it, and can be replayed if the SDK retries
+    private RequestBody body(byte[] buffer, int length) {
+        return RequestBody.fromContentProvider(() -> new ByteArrayInputStream(buffer, 0, length), length,
+                "application/octet-stream");
+    }
+}
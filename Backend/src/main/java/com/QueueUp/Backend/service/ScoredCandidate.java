@@ -0,0 +1,17 @@
+package com.QueueUp.Backend.service;
+
+import java.util.Comparator;
+
+// A candidate id paired with its compatibility score for the current user
+public record ScoredCandidate(long userId, int score) {
+
+    // Feed order: highest score first, ties broken by id so the ranking is stable across pages
+    public static final Comparator<ScoredCandidate> FEED_ORDER =
+            Comparator.comparingInt(ScoredCandidate::score).reversed()
+                    .thenComparingLong(ScoredCandidate::userId);
+
+    // True if this candidate ranks strictly after the given position in feed order
+    public boolean isAfter(ScoredCandidate position) {
+        return position == null || FEED_ORDER.compare(this, position) > 0;
+    }
+}
@@ -0,0 +1,142 @@
+package com.QueueUp.Backend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.LongFunction;
+import java.util.function.LongPredicate;
+
+/**
+ * Scores candidates against the current user's taste snapshot and keeps the top K.
+ * Large candidate sets are split into chunks scored on a dedicated, bounded
+ * ForkJoin pool, and the per-chunk top-K lists are merged; small sets stay on
+ * the calling thread.
+ */
+@Component
+public class ScoringEngine {
+
+    private static final int MIN_CHUNK_SIZE = 256;
+
+    private final ForkJoinPool pool;
+    private final int parallelCutoff;
+
+    public ScoringEngine(@Value("${app.matching.parallelism:0}") int parallelism,
+                         @Value("${app.matching.parallel-cutoff:2000}") int parallelCutoff) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.parallelCutoff = parallelCutoff;
+        this.pool = new ForkJoinPool(threads, p -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName("scoring-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Returns the best {@code k} candidates ranked after {@code after}, in feed order.
+     * Candidates scoring below {@code minScore} or matching {@code excluded} are dropped.
+     */
+    public List<ScoredCandidate> rankTopK(TasteSnapshot mine,
+                                          List<Long> candidates,
+                                          LongFunction<TasteSnapshot> snapshots,
+                                          int k,
+                                          int minScore,
+                                          ScoredCandidate after,
+                                          LongPredicate excluded) {
+        if (k <= 0 || candidates.isEmpty()) return new ArrayList<>();
+
+        Job job = new Job(mine, candidates, snapshots, k, minScore, after, excluded);
+        if (candidates.size() < parallelCutoff || pool.getParallelism() == 1) {
+            return job.scoreRange(0, candidates.size());
+        }
+
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, candidates.size() / (pool.getParallelism() * 4));
+        return pool.invoke(new ChunkTask(job, 0, candidates.size(), chunkSize));
+    }
+
+    private record Job(TasteSnapshot mine,
+                       List<Long> candidates,
+                       LongFunction<TasteSnapshot> snapshots,
+                       int k,
+                       int minScore,
+                       ScoredCandidate after,
+                       LongPredicate excluded) {
+
+        // Bounded heap over one slice of the candidate list
+        private List<ScoredCandidate> scoreRange(int from, int to) {
+            PriorityQueue<ScoredCandidate> heap = new PriorityQueue<>(k + 1, ScoredCandidate.FEED_ORDER.reversed());
+
+            for (int i = from; i < to; i++) {
+                long userId = candidates.get(i);
+                if (excluded.test(userId)) continue;
+
+                int score = mine.score(snapshots.apply(userId));
+                if (score < minScore) continue;
+
+                ScoredCandidate candidate = new ScoredCandidate(userId, score);
+                if (!candidate.isAfter(after)) continue;
+
+                if (heap.size() < k) {
+                    heap.add(candidate);
+                } else if (ScoredCandidate.FEED_ORDER.compare(candidate, heap.peek()) < 0) {
+                    heap.poll();
+                    heap.add(candidate);
+                }
+            }
+
+            List<ScoredCandidate> top = new ArrayList<>(heap);
+            top.sort(ScoredCandidate.FEED_ORDER);
+            return top;
+        }
+    }
+
+    private static final class ChunkTask extends RecursiveTask<List<ScoredCandidate>> {
+        private final Job job;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        private ChunkTask(Job job, int from, int to, int chunkSize) {
+            this.job = job;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected List<ScoredCandidate> compute() {
+            if (to - from <= chunkSize) {
+                return job.scoreRange(from, to);
+            }
+
+            int mid = (from + to) >>> 1;
+            ChunkTask left = new ChunkTask(job, from, mid, chunkSize);
+            left.fork();
+            List<ScoredCandidate> right = new ChunkTask(job, mid, to, chunkSize).compute();
+            return merge(left.join(), right, job.k());
+        }
+
+        // Both inputs are already in feed order, keep the first k of their union
+        private static List<ScoredCandidate> merge(List<ScoredCandidate> a, List<ScoredCandidate> b, int k) {
+            List<ScoredCandidate> merged = new ArrayList<>(Math.min(k, a.size() + b.size()));
+            int i = 0, j = 0;
+            while (merged.size() < k && (i < a.size() || j < b.size())) {
+                if (j >= b.size() || (i < a.size() && ScoredCandidate.FEED_ORDER.compare(a.get(i), b.get(j)) <= 0)) {
+                    merged.add(a.get(i++));
+                } else {
+                    merged.add(b.get(j++));
+                }
+            }
+            return merged;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.QueueUp.Backend.service;
+
+import com.QueueUp.Backend.repository.UserRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Alternative to the in-memory ScoringEngine that pushes the weighted overlap
+ * count down to Postgres. Only (candidate_id, score) tuples come back, already
+ * ordered and limited by the database.
+ */
+@Component
+public class SqlScoringEngine {
+
+    private final UserRepository userRepository;
+
+    public SqlScoringEngine(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Returns the best {@code k} candidates ranked after {@code after}, in feed order.
+     * Only committed swipes and matches are excluded, callers still filter in-flight ones.
+     */
+    public List<ScoredCandidate> rankTopK(Long userId, int k, ScoredCandidate after) {
+        if (k <= 0) return new ArrayList<>();
+
+        List<Object[]> rows = userRepository.findTopOverlapCandidates(userId,
+                TasteCategory.TOP_ARTISTS.getWeight(),
+                TasteCategory.TOP_TRACKS.getWeight(),
+                TasteCategory.SAVED_TRACKS.getWeight(),
+                TasteCategory.FOLLOWED_ARTISTS.getWeight(),
+                after != null ? after.score() : Integer.MAX_VALUE,
+                after != null ? after.userId() : 0L,
+                k);
+
+        List<ScoredCandidate> ranked = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            ranked.add(new ScoredCandidate(((Number) row[0]).longValue(), ((Number) row[1]).intValue()));
+        }
+        return ranked;
+    }
+}
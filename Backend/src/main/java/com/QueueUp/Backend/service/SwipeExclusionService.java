@@ -0,0 +1,132 @@
+package com.QueueUp.Backend.service;
+
+import com.QueueUp.Backend.repository.SwipeEdgeRepository;
+import com.QueueUp.Backend.utils.RoaringIdSet;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongPredicate;
+
+/**
+ * Per-user set of ids the user must never see in the feed again: themselves,
+ * everyone they liked or disliked, and their matches. Sets are loaded once from
+ * an id-only query on swipe_edge, kept as compact bitmaps and updated in place on
+ * every committed swipe and match, so candidate filtering never round-trips to the
+ * database. Swipes committed while a set is loading are recorded on the side and
+ * merged in before the set is published, so a load never caches a stale set.
+ */
+@Service
+public class SwipeExclusionService {
+
+    private final SwipeEdgeRepository swipeEdgeRepository;
+
+    @Value("${app.feed.max-exclusion-sets:10000}")
+    private int maxSets;
+
+    private final Map<Long, RoaringIdSet> exclusions = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, RoaringIdSet> eldest) {
+            return size() > maxSets;
+        }
+    });
+
+    // userId -> ids excluded while each in-flight load of that user runs
+    private final Map<Long, List<List<Long>>> loading = new ConcurrentHashMap<>();
+
+    public SwipeExclusionService(SwipeEdgeRepository swipeEdgeRepository) {
+        this.swipeEdgeRepository = swipeEdgeRepository;
+    }
+
+    /**
+     * Returns a read-only view of the user's exclusions. Each lookup locks the live set,
+     * so swipes committed while the view is in use show up without copying the bitmap.
+     */
+    public LongPredicate exclusionsFor(Long userId) {
+        RoaringIdSet loaded = exclusions.get(userId);
+        RoaringIdSet set = loaded != null ? loaded : load(userId);
+
+        return id -> {
+            synchronized (set) {
+                return set.contains(id);
+            }
+        };
+    }
+
+    // Only consults sets that are already loaded, unknown users are treated as excluding nobody
+    public boolean isExcluded(Long userId, Long candidateId) {
+        RoaringIdSet set = exclusions.get(userId);
+        if (set == null) return false;
+
+        synchronized (set) {
+            return set.contains(candidateId);
+        }
+    }
+
+    public void recordSwipe(Long swiperId, Long targetId) {
+        add(swiperId, targetId);
+    }
+
+    public void recordMatch(Long userId, Long otherUserId) {
+        add(userId, otherUserId);
+        add(otherUserId, userId);
+    }
+
+    // Call after the swipe has committed. Sets not loaded yet pick the change up from the database,
+    // loads already running get it merged in before they publish
+    private void add(Long userId, Long excludedId) {
+        loading.computeIfPresent(userId, (id, arrivals) -> {
+            arrivals.forEach(ids -> ids.add(excludedId));
+            return arrivals;
+        });
+
+        RoaringIdSet set = exclusions.get(userId);
+        if (set == null) return;
+
+        synchronized (set) {
+            set.add(excludedId);
+        }
+    }
+
+    private RoaringIdSet load(Long userId) {
+        // Registered before the query, so every swipe the query may miss is recorded here
+        List<Long> arrived = new ArrayList<>();
+        loading.compute(userId, (id, arrivals) -> {
+            List<List<Long>> inFlight = arrivals != null ? arrivals : new ArrayList<>();
+            inFlight.add(arrived);
+            return inFlight;
+        });
+
+        RoaringIdSet set = new RoaringIdSet();
+        set.add(userId);
+        try {
+            for (Long id : swipeEdgeRepository.findTargetIds(userId)) {
+                set.add(id);
+            }
+        } catch (RuntimeException e) {
+            finishLoad(userId, arrived, null);
+            throw e;
+        }
+        return finishLoad(userId, arrived, set);
+    }
+
+    // Merges what arrived during the load and publishes the set, or returns the one another load published
+    private RoaringIdSet finishLoad(Long userId, List<Long> arrived, RoaringIdSet set) {
+        RoaringIdSet[] published = {set};
+        loading.computeIfPresent(userId, (id, arrivals) -> {
+            arrivals.removeIf(ids -> ids == arrived);
+            if (set != null) {
+                arrived.forEach(set::add);
+                RoaringIdSet existing = exclusions.putIfAbsent(userId, set);
+                if (existing != null) published[0] = existing;
+            }
+            return arrivals.isEmpty() ? null : arrivals;
+        });
+        return published[0];
+    }
+}
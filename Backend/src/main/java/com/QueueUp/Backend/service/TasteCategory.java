@@ -0,0 +1,19 @@
+package com.QueueUp.Backend.service;
+
+// The four kinds of music overlap, weighted like the original scoring formula
+public enum TasteCategory {
+    TOP_ARTISTS(3),
+    TOP_TRACKS(2),
+    SAVED_TRACKS(1),
+    FOLLOWED_ARTISTS(1);
+
+    private final int weight;
+
+    TasteCategory(int weight) {
+        this.weight = weight;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+}
@@ -0,0 +1,189 @@
+package com.QueueUp.Backend.service;
+
+import com.QueueUp.Backend.model.User;
+import com.QueueUp.Backend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-memory inverted index from interned Spotify item ids to the users holding them.
+ * Candidate generation walks the posting lists of the current user's items, so
+ * only users sharing at least one artist or track are ever scored.
+ */
+@Component
+public class TasteIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(TasteIndex.class);
+    private static final long LSH_SEED = 42L;
+
+    private final UserRepository userRepository;
+    private final CatalogInterner interner;
+
+    // category -> interned item id -> user ids holding it
+    private final Map<TasteCategory, Map<Integer, Set<Long>>> postings = new EnumMap<>(TasteCategory.class);
+
+    // userId -> taste snapshot (also needed to drop stale postings on re-sync)
+    private final Map<Long, TasteSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    // Optional LSH side index for approximate candidate generation, null when disabled
+    private final MinHashIndex minHashIndex;
+    private final AtomicBoolean warnedNoLsh = new AtomicBoolean();
+
+    public TasteIndex(UserRepository userRepository,
+                      CatalogInterner interner,
+                      @Value("${app.matching.lsh.enabled:false}") boolean lshEnabled,
+                      @Value("${app.matching.lsh.bands:32}") int lshBands,
+                      @Value("${app.matching.lsh.rows:2}") int lshRows) {
+        this.userRepository = userRepository;
+        this.interner = interner;
+        this.minHashIndex = lshEnabled ? new MinHashIndex(lshBands, lshRows, LSH_SEED) : null;
+        for (TasteCategory category : TasteCategory.values()) {
+            postings.put(category, new ConcurrentHashMap<>());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+
+        Map<Long, Map<TasteCategory, List<Integer>>> loaded = new HashMap<>();
+        collect(loaded, TasteCategory.TOP_ARTISTS, userRepository.findAllTopArtistIds());
+        collect(loaded, TasteCategory.TOP_TRACKS, userRepository.findAllTopTrackIds());
+        collect(loaded, TasteCategory.SAVED_TRACKS, userRepository.findAllSavedTrackIds());
+        collect(loaded, TasteCategory.FOLLOWED_ARTISTS, userRepository.findAllFollowedArtistIds());
+
+        loaded.forEach((userId, items) -> indexUser(userId, TasteSnapshot.of(items)));
+
+        logger.info("Taste index built for {} users ({} catalog items) in {} ms",
+                loaded.size(), interner.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Replaces everything indexed for the user with the given snapshot.
+     */
+    public void indexUser(Long userId, TasteSnapshot snapshot) {
+        removeUser(userId);
+
+        for (TasteCategory category : TasteCategory.values()) {
+            Map<Integer, Set<Long>> categoryPostings = postings.get(category);
+            for (int itemId : snapshot.get(category)) {
+                categoryPostings.computeIfAbsent(itemId, k -> ConcurrentHashMap.newKeySet()).add(userId);
+            }
+        }
+        snapshots.put(userId, snapshot);
+
+        if (minHashIndex != null) {
+            minHashIndex.index(userId, snapshot);
+        }
+    }
+
+    public void removeUser(Long userId) {
+        if (minHashIndex != null) {
+            minHashIndex.remove(userId);
+        }
+
+        TasteSnapshot previous = snapshots.remove(userId);
+        if (previous == null) return;
+
+        for (TasteCategory category : TasteCategory.values()) {
+            Map<Integer, Set<Long>> categoryPostings = postings.get(category);
+            for (int itemId : previous.get(category)) {
+                categoryPostings.computeIfPresent(itemId, (k, holders) -> {
+                    holders.remove(userId);
+                    return holders.isEmpty() ? null : holders;
+                });
+            }
+        }
+    }
+
+    public TasteSnapshot snapshot(Long userId) {
+        return snapshots.getOrDefault(userId, TasteSnapshot.EMPTY);
+    }
+
+    /**
+     * Walks the posting lists of the user's items and accumulates the weighted
+     * overlap score for every other user that shares at least one of them.
+     */
+    public Map<Long, Integer> scoreCandidates(Long userId) {
+        TasteSnapshot mine = snapshots.get(userId);
+        if (mine == null) return new HashMap<>();
+
+        Map<Long, Integer> scores = new HashMap<>();
+        for (TasteCategory category : TasteCategory.values()) {
+            Map<Integer, Set<Long>> categoryPostings = postings.get(category);
+            for (int itemId : mine.get(category)) {
+                Set<Long> holders = categoryPostings.get(itemId);
+                if (holders == null) continue;
+
+                for (Long holder : holders) {
+                    if (!holder.equals(userId)) {
+                        scores.merge(holder, category.getWeight(), Integer::sum);
+                    }
+                }
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Every other user sharing at least one item with the given user, i.e. the
+     * union of the user's posting lists. Scoring is left to the ScoringEngine.
+     */
+    public List<Long> candidateIds(Long userId) {
+        TasteSnapshot mine = snapshots.get(userId);
+        if (mine == null) return new ArrayList<>();
+
+        Set<Long> candidates = new HashSet<>();
+        for (TasteCategory category : TasteCategory.values()) {
+            Map<Integer, Set<Long>> categoryPostings = postings.get(category);
+            for (int itemId : mine.get(category)) {
+                Set<Long> holders = categoryPostings.get(itemId);
+                if (holders != null) candidates.addAll(holders);
+            }
+        }
+        candidates.remove(userId);
+        return new ArrayList<>(candidates);
+    }
+
+    /**
+     * Approximate mode: only users sharing an LSH bucket with the given user.
+     * Falls back to the exact posting-list union when the LSH index is disabled.
+     */
+    public List<Long> approximateCandidateIds(Long userId) {
+        if (minHashIndex == null) {
+            if (warnedNoLsh.compareAndSet(false, true)) {
+                logger.warn("mode=approximate requested but app.matching.lsh.enabled is false, using exact candidates");
+            }
+            return candidateIds(userId);
+        }
+        return new ArrayList<>(minHashIndex.candidates(userId));
+    }
+
+    // Must be called while the user's music collections are still loadable (inside a transaction)
+    public TasteSnapshot capture(User user) {
+        Map<TasteCategory, List<Integer>> items = new EnumMap<>(TasteCategory.class);
+        items.put(TasteCategory.TOP_ARTISTS, user.getTopArtists().stream().map(a -> interner.intern(a.getSpotifyId())).toList());
+        items.put(TasteCategory.TOP_TRACKS, user.getTopTracks().stream().map(t -> interner.intern(t.getSpotifyId())).toList());
+        items.put(TasteCategory.SAVED_TRACKS, user.getSavedTracks().stream().map(t -> interner.intern(t.getSpotifyId())).toList());
+        items.put(TasteCategory.FOLLOWED_ARTISTS, user.getFollowedArtists().stream().map(a -> interner.intern(a.getSpotifyId())).toList());
+        return TasteSnapshot.of(items);
+    }
+
+    private void collect(Map<Long, Map<TasteCategory, List<Integer>>> loaded, TasteCategory category, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            Long userId = ((Number) row[0]).longValue();
+            int itemId = interner.intern((String) row[1]);
+            loaded.computeIfAbsent(userId, k -> new EnumMap<>(TasteCategory.class))
+                    .computeIfAbsent(category, k -> new ArrayList<>())
+                    .add(itemId);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.QueueUp.Backend.service;
+
+import com.QueueUp.Backend.dto.MatchProfileDto;
+import com.QueueUp.Backend.dto.SharedItemsDto;
+import com.QueueUp.Backend.dto.TasteItemView;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable, displayable view of a user's music taste: per category, the items
+ * with their names and images, ordered by name. Unlike TasteSnapshot it carries
+ * what the UI shows, so shared items can be computed without touching the database.
+ */
+public final class TasteProfile {
+
+    public static final TasteProfile EMPTY = new TasteProfile(new EnumMap<>(TasteCategory.class));
+
+    private final Map<TasteCategory, List<TasteItemView>> items;
+
+    private TasteProfile(Map<TasteCategory, List<TasteItemView>> items) {
+        this.items = items;
+    }
+
+    public static TasteProfile of(Map<TasteCategory, ? extends Collection<TasteItemView>> itemsByCategory) {
+        Map<TasteCategory, List<TasteItemView>> items = new EnumMap<>(TasteCategory.class);
+        itemsByCategory.forEach((category, list) -> items.put(category, List.copyOf(list)));
+        return new TasteProfile(items);
+    }
+
+    public List<TasteItemView> get(TasteCategory category) {
+        return items.getOrDefault(category, List.of());
+    }
+
+    // Items of this profile that the other one also holds, in this profile's name order
+    public SharedItemsDto sharedWith(TasteProfile other) {
+        return new SharedItemsDto(
+                shared(other, TasteCategory.TOP_ARTISTS),
+                shared(other, TasteCategory.TOP_TRACKS),
+                shared(other, TasteCategory.SAVED_TRACKS),
+                shared(other, TasteCategory.FOLLOWED_ARTISTS));
+    }
+
+    private List<MatchProfileDto.ItemDto> shared(TasteProfile other, TasteCategory category) {
+        Set<String> theirs = other.get(category).stream()
+                .map(TasteItemView::spotifyId)
+                .collect(Collectors.toSet());
+
+        return get(category).stream()
+                .filter(item -> theirs.contains(item.spotifyId()))
+                .map(item -> new MatchProfileDto.ItemDto(item.spotifyId(), item.name(), item.imageUrl()))
+                .toList();
+    }
+}
@@ -0,0 +1,97 @@
+package com.QueueUp.Backend.service;
+
+import com.QueueUp.Backend.dto.TasteItemView;
+import com.QueueUp.Backend.repository.MatchProfileRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded in-process cache of TasteProfiles, keyed by user id and taste version.
+ * Music data only changes through Spotify ingestion and bot creation, which bump
+ * the user's version once the new rows are committed. A load that raced with the
+ * bump is stored under the old version and is never read again.
+ * Hit, miss and eviction counts are published as cache.* metrics (cache=tasteProfiles).
+ */
+@Component
+public class TasteProfileCache {
+
+    private final MatchProfileRepository matchProfileRepository;
+    private final Cache<TasteKey, TasteProfile> cache;
+
+    // userId -> taste version, absent means 0
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+
+    public TasteProfileCache(MatchProfileRepository matchProfileRepository,
+                             @Value("${app.cache.taste-profiles.max-size:2000}") long maxSize,
+                             MeterRegistry meterRegistry) {
+        this.matchProfileRepository = matchProfileRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "tasteProfiles");
+    }
+
+    public TasteProfile profileOf(Long userId) {
+        return profilesOf(List.of(userId)).getOrDefault(userId, TasteProfile.EMPTY);
+    }
+
+    /**
+     * Profiles for all the given users. Misses are loaded together, one query per category.
+     */
+    public Map<Long, TasteProfile> profilesOf(Collection<Long> userIds) {
+        Set<TasteKey> keys = new LinkedHashSet<>();
+        for (Long userId : userIds) {
+            keys.add(new TasteKey(userId, versionOf(userId)));
+        }
+
+        Map<Long, TasteProfile> profiles = new HashMap<>();
+        cache.getAll(keys, this::load).forEach((key, profile) -> profiles.put(key.userId(), profile));
+        return profiles;
+    }
+
+    public long versionOf(Long userId) {
+        return versions.getOrDefault(userId, 0L);
+    }
+
+    // Called after the user's new music data is committed
+    public void invalidate(Long userId) {
+        versions.merge(userId, 1L, Long::sum);
+        cache.asMap().keySet().removeIf(key -> key.userId().equals(userId));
+    }
+
+    private Map<TasteKey, TasteProfile> load(Set<? extends TasteKey> keys) {
+        List<Long> userIds = keys.stream().map(TasteKey::userId).toList();
+
+        Map<Long, Map<TasteCategory, List<TasteItemView>>> loaded = new HashMap<>();
+        collect(loaded, TasteCategory.TOP_ARTISTS, matchProfileRepository.findTopArtistItems(userIds));
+        collect(loaded, TasteCategory.TOP_TRACKS, matchProfileRepository.findTopTrackItems(userIds));
+        collect(loaded, TasteCategory.SAVED_TRACKS, matchProfileRepository.findSavedTrackItems(userIds));
+        collect(loaded, TasteCategory.FOLLOWED_ARTISTS, matchProfileRepository.findFollowedArtistItems(userIds));
+
+        Map<TasteKey, TasteProfile> profiles = new HashMap<>();
+        for (TasteKey key : keys) {
+            Map<TasteCategory, List<TasteItemView>> items = loaded.get(key.userId());
+            profiles.put(key, items == null ? TasteProfile.EMPTY : TasteProfile.of(items));
+        }
+        return profiles;
+    }
+
+    private void collect(Map<Long, Map<TasteCategory, List<TasteItemView>>> loaded, TasteCategory category, List<TasteItemView> rows) {
+        for (TasteItemView row : rows) {
+            loaded.computeIfAbsent(row.userId(), k -> new EnumMap<>(TasteCategory.class))
+                    .computeIfAbsent(category, k -> new ArrayList<>())
+                    .add(row);
+        }
+    }
+
+    private record TasteKey(Long userId, long version) {
+    }
+}
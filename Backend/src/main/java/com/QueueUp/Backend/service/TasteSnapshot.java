@@ -0,0 +1,76 @@
+package com.QueueUp.Backend.service;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Immutable view of a user's music taste: one sorted array of interned item ids
+ * per category. Scoring two snapshots is a merge over sorted arrays, so the hot
+ * loop never allocates, hashes or boxes.
+ */
+public final class TasteSnapshot {
+
+    public static final TasteSnapshot EMPTY = new TasteSnapshot(new int[TasteCategory.values().length][0]);
+
+    private static final TasteCategory[] CATEGORIES = TasteCategory.values();
+
+    private final int[][] items;
+
+    private TasteSnapshot(int[][] items) {
+        this.items = items;
+    }
+
+    public static TasteSnapshot of(Map<TasteCategory, ? extends Collection<Integer>> itemsByCategory) {
+        int[][] items = new int[CATEGORIES.length][];
+        for (TasteCategory category : CATEGORIES) {
+            Collection<Integer> ids = itemsByCategory.get(category);
+            int[] sorted = ids == null ? new int[0] : ids.stream().mapToInt(Integer::intValue).sorted().distinct().toArray();
+            items[category.ordinal()] = sorted;
+        }
+        return new TasteSnapshot(items);
+    }
+
+    public int[] get(TasteCategory category) {
+        return items[category.ordinal()];
+    }
+
+    public boolean contains(TasteCategory category, int itemId) {
+        return itemId >= 0 && Arrays.binarySearch(items[category.ordinal()], itemId) >= 0;
+    }
+
+    public boolean isEmpty() {
+        for (int[] ids : items) {
+            if (ids.length > 0) return false;
+        }
+        return true;
+    }
+
+    // Weighted 3/2/1/1 overlap with another user
+    public int score(TasteSnapshot other) {
+        int score = 0;
+        for (TasteCategory category : CATEGORIES) {
+            int i = category.ordinal();
+            score += overlap(items[i], other.items[i]) * category.getWeight();
+        }
+        return score;
+    }
+
+    // Size of the intersection of two sorted arrays
+    public static int overlap(int[] a, int[] b) {
+        int i = 0, j = 0, count = 0;
+        while (i < a.length && j < b.length) {
+            int x = a[i], y = b[j];
+            if (x == y) {
+                count++;
+                i++;
+                j++;
+            } else if (x < y) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return count;
+    }
+}
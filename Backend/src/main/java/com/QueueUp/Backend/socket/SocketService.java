@@ -8,7 +8,10 @@ import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 
 import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 @Service
@@ -70,6 +73,34 @@ public class SocketService {
         }
     }
 
+    // Several {type, payload} messages for one user, sent under a single session lock
+    // True only if every message was written to an open session of this instance
+    public boolean sendMessagesToUser(Long userId, List<Map<String, Object>> socketMessages) {
+        WebSocketSession session = userSessions.get(userId);
+        if (session == null || !session.isOpen()) return false;
+
+        try {
+            synchronized (session) {
+                for (Map<String, Object> socketMessage : socketMessages) {
+                    session.sendMessage(new TextMessage(objectMapper.writeValueAsString(socketMessage)));
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            logger.error("Error sending message batch", e);
+            return false;
+        }
+    }
+
+    // Users with an open session on this instance
+    public Set<Long> connectedUserIds() {
+        Set<Long> userIds = new HashSet<>();
+        userSessions.forEach((userId, session) -> {
+            if (session.isOpen()) userIds.add(userId);
+        });
+        return userIds;
+    }
+
     public void broadcast(String eventName, Object payload) {
         try {
             Map<String, Object> socketMessage = Map.of(
@@ -0,0 +1,171 @@
+package com.QueueUp.Backend.utils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compact set of user ids in the style of a roaring bitmap. Ids are split into
+ * a high part selecting a container and a 16-bit low part stored in it: sparse
+ * containers are sorted char arrays, dense ones switch to a 8 KB bitmap.
+ * Not thread-safe; callers synchronize or work on a {@link #copy()}.
+ */
+public class RoaringIdSet {
+
+    // An array container above this size is larger than a bitmap
+    private static final int ARRAY_LIMIT = 4096;
+
+    private final Map<Long, Container> containers = new HashMap<>();
+    private int size;
+
+    public boolean add(long id) {
+        Container container = containers.computeIfAbsent(id >>> 16, k -> new ArrayContainer());
+        if (!container.add((char) id)) return false;
+
+        if (container instanceof ArrayContainer array && array.cardinality > ARRAY_LIMIT) {
+            containers.put(id >>> 16, array.toBitmap());
+        }
+        size++;
+        return true;
+    }
+
+    public boolean remove(long id) {
+        Container container = containers.get(id >>> 16);
+        if (container == null || !container.remove((char) id)) return false;
+
+        if (container.cardinality() == 0) {
+            containers.remove(id >>> 16);
+        }
+        size--;
+        return true;
+    }
+
+    public boolean contains(long id) {
+        Container container = containers.get(id >>> 16);
+        return container != null && container.contains((char) id);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public RoaringIdSet copy() {
+        RoaringIdSet copy = new RoaringIdSet();
+        containers.forEach((key, container) -> copy.containers.put(key, container.copy()));
+        copy.size = size;
+        return copy;
+    }
+
+    private interface Container {
+        boolean add(char low);
+
+        boolean remove(char low);
+
+        boolean contains(char low);
+
+        int cardinality();
+
+        Container copy();
+    }
+
+    private static final class ArrayContainer implements Container {
+        private char[] values = new char[4];
+        private int cardinality;
+
+        @Override
+        public boolean add(char low) {
+            int index = Arrays.binarySearch(values, 0, cardinality, low);
+            if (index >= 0) return false;
+
+            int insertAt = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(values.length * 2, ARRAY_LIMIT + 1));
+            }
+            System.arraycopy(values, insertAt, values, insertAt + 1, cardinality - insertAt);
+            values[insertAt] = low;
+            cardinality++;
+            return true;
+        }
+
+        @Override
+        public boolean remove(char low) {
+            int index = Arrays.binarySearch(values, 0, cardinality, low);
+            if (index < 0) return false;
+
+            System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+            cardinality--;
+            return true;
+        }
+
+        @Override
+        public boolean contains(char low) {
+            return Arrays.binarySearch(values, 0, cardinality, low) >= 0;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public Container copy() {
+            ArrayContainer copy = new ArrayContainer();
+            copy.values = Arrays.copyOf(values, values.length);
+            copy.cardinality = cardinality;
+            return copy;
+        }
+
+        private BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < cardinality; i++) {
+                bitmap.add(values[i]);
+            }
+            return bitmap;
+        }
+    }
+
+    private static final class BitmapContainer implements Container {
+        private long[] words = new long[1024];
+        private int cardinality;
+
+        @Override
+        public boolean add(char low) {
+            long mask = 1L << low;
+            int word = low >>> 6;
+            if ((words[word] & mask) != 0) return false;
+
+            words[word] |= mask;
+            cardinality++;
+            return true;
+        }
+
+        @Override
+        public boolean remove(char low) {
+            long mask = 1L << low;
+            int word = low >>> 6;
+            if ((words[word] & mask) == 0) return false;
+
+            words[word] &= ~mask;
+            cardinality--;
+            return true;
+        }
+
+        @Override
+        public boolean contains(char low) {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public Container copy() {
+            BitmapContainer copy = new BitmapContainer();
+            copy.words = words.clone();
+            copy.cardinality = cardinality;
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.QueueUp.Backend.repository;
+
+import com.QueueUp.Backend.model.Attachment;
+import com.QueueUp.Backend.model.AttachmentCategory;
+import com.QueueUp.Backend.model.Message;
+import com.QueueUp.Backend.model.User;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Saving a message is one INSERT statement per table, batched, however many
+ * attachments and link previews it carries.
+ */
+@DataJpaTest(properties = {
+        "spring.application.name=queueup-test",
+        "spring.profiles.active=test",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        // Attachment.key is a reserved word in H2
+        "spring.jpa.properties.hibernate.auto_quote_keyword=true"
+})
+class MessageRepositoryTest {
+
+    // message, attachment batch, message_link_previews batch
+    private static final long INSERT_STATEMENTS = 3;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Test
+    void sendIsBatchedPerTable() {
+        User sender = user("sender");
+        User receiver = user("receiver");
+        entityManager.flush();
+        entityManager.clear();
+
+        // Warm up so the pooled sequences have ids allocated for both measured sends. On a fresh
+        // sequence the first nextval only yields id 1, the second one allocates a block of 50.
+        statementsToSave(sender.getId(), receiver.getId(), 1, 1);
+        statementsToSave(sender.getId(), receiver.getId(), 1, 1);
+
+        assertEquals(INSERT_STATEMENTS, statementsToSave(sender.getId(), receiver.getId(), 1, 1));
+        assertEquals(INSERT_STATEMENTS, statementsToSave(sender.getId(), receiver.getId(), 10, 5));
+    }
+
+    private long statementsToSave(Long senderId, Long receiverId, int attachments, int previews) {
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Message message = new Message();
+        message.setSender(entityManager.getReference(User.class, senderId));
+        message.setReceiver(entityManager.getReference(User.class, receiverId));
+        message.setContent("hello");
+
+        List<String> links = new ArrayList<>();
+        for (int i = 0; i < previews; i++) {
+            links.add("https://example.com/" + i);
+        }
+        message.setLinkPreviews(links);
+
+        for (int i = 0; i < attachments; i++) {
+            Attachment attachment = new Attachment();
+            attachment.setUrl("https://cdn.example.com/" + i);
+            attachment.setKey("key-" + i);
+            attachment.setName("file-" + i);
+            attachment.setExt("png");
+            attachment.setCategory(AttachmentCategory.IMAGE);
+            attachment.setMessage(message);
+            message.getAttachments().add(attachment);
+        }
+
+        messageRepository.save(message);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(1 + attachments, statistics.getEntityInsertCount());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private User user(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@queueup.test");
+        user.setPassword("x");
+        user.setAge(25);
+        entityManager.persist(user);
+        return user;
+    }
+}
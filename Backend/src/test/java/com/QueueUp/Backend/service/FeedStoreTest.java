@@ -0,0 +1,34 @@
+package com.QueueUp.Backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FeedStoreTest {
+
+    @Test
+    void truncatedFeedBelowCapacityLeavesLowerCandidatesToTheContinuation() {
+        FeedStore.MaterializedFeed feed = new FeedStore.MaterializedFeed(null);
+        for (long id = 1; id <= 4; id++) {
+            feed.upsert(new ScoredCandidate(id, 100 - (int) id), 4);
+        }
+        // Capacity reached, the weakest of five is cut off and the feed ends at user 4
+        feed.upsert(new ScoredCandidate(5, 90), 4);
+
+        // Swipes shrink the feed below capacity
+        feed.remove(3L);
+        feed.remove(4L);
+
+        // Ranks past the feed's end: stays out, or the continuation would start after it
+        feed.upsert(new ScoredCandidate(6, 50), 4);
+        // Re-scored below the end: moves out to the continuation as well
+        feed.upsert(new ScoredCandidate(1, 10), 4);
+        // Still ranks inside the feed
+        feed.upsert(new ScoredCandidate(7, 99), 4);
+
+        List<ScoredCandidate> page = feed.slice(null, 10, id -> false);
+        assertEquals(List.of(new ScoredCandidate(7, 99), new ScoredCandidate(2, 98)), page);
+    }
+}
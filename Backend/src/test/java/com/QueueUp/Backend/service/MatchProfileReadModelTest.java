@@ -0,0 +1,151 @@
+package com.QueueUp.Backend.service;
+
+import com.QueueUp.Backend.dto.MatchProfileDto;
+import com.QueueUp.Backend.model.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The matches list must cost a fixed number of queries, independent of how many
+ * matches there are, and must not fill the persistence context with User graphs.
+ * Cached pair compatibility brings it down further until either user's taste changes.
+ */
+@DataJpaTest(properties = {
+        "spring.application.name=queueup-test",
+        "spring.profiles.active=test",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({MatchProfileReadModel.class, CompatibilityCache.class, TasteProfileCache.class, SimpleMeterRegistry.class})
+class MatchProfileReadModelTest {
+
+    // matched ids, profile rows, and one taste-item query per category for the uncached profiles
+    private static final long COLD_QUERIES = 6;
+    private static final long WARM_QUERIES = 2;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private MatchProfileReadModel readModel;
+
+    @Autowired
+    private TasteProfileCache tasteProfileCache;
+
+    @Autowired
+    private CompatibilityCache compatibilityCache;
+
+    @Test
+    void matchesListCostsAFixedNumberOfQueries() {
+        Long fewMatchesUser = seed("few", 2);
+        Long manyMatchesUser = seed("many", 25);
+
+        assertEquals(COLD_QUERIES, queriesFor(fewMatchesUser, 2));
+        assertEquals(COLD_QUERIES, queriesFor(manyMatchesUser, 25));
+    }
+
+    @Test
+    void cachedProfilesAreReusedUntilInvalidated() {
+        Long userId = seed("cache", 5);
+
+        assertEquals(COLD_QUERIES, queriesFor(userId, 5));
+        assertEquals(WARM_QUERIES, queriesFor(userId, 5));
+
+        // A re-sync of the user reloads only that profile, still one query per category
+        tasteProfileCache.invalidate(userId);
+        compatibilityCache.invalidate(userId);
+        assertEquals(COLD_QUERIES, queriesFor(userId, 5));
+        assertEquals(WARM_QUERIES, queriesFor(userId, 5));
+    }
+
+    @Test
+    void sharedItemsAndScoresComeFromTheProjections() {
+        Long userId = seed("score", 3);
+
+        List<MatchProfileDto> matches = readModel.matchesOf(userId);
+
+        assertEquals(3, matches.size());
+        for (MatchProfileDto match : matches) {
+            // two top artists (3 each), one top track (2), one saved track (1)
+            assertEquals(9, match.getScore());
+            assertEquals(List.of("score-artist-0", "score-artist-1"),
+                    match.getCommonArtists().stream().map(MatchProfileDto.ItemDto::getId).toList());
+            assertEquals(1, match.getCommonTracks().size());
+            assertEquals(1, match.getCommonSaved().size());
+            assertEquals(0, match.getCommonFollowed().size());
+        }
+    }
+
+    private long queriesFor(Long userId, int expectedMatches) {
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<MatchProfileDto> matches = readModel.matchesOf(userId);
+
+        assertEquals(expectedMatches, matches.size());
+        // Projections only, nothing is attached to the session
+        assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+        return statistics.getPrepareStatementCount();
+    }
+
+    // A user with `matchCount` matches, each sharing the same few items with them
+    private Long seed(String prefix, int matchCount) {
+        Artist artist0 = artist(prefix + "-artist-0");
+        Artist artist1 = artist(prefix + "-artist-1");
+        Track track0 = track(prefix + "-track-0");
+        Track track1 = track(prefix + "-track-1");
+
+        User me = user(prefix + "-me");
+        me.getTopArtists().addAll(List.of(artist0, artist1));
+        me.getTopTracks().add(track0);
+        me.getSavedTracks().add(track1);
+        me.getFollowedArtists().add(artist(prefix + "-followed"));
+        entityManager.persist(me);
+
+        for (int i = 0; i < matchCount; i++) {
+            User match = user(prefix + "-match-" + i);
+            match.getTopArtists().addAll(List.of(artist0, artist1, artist(prefix + "-only-" + i)));
+            match.getTopTracks().add(track0);
+            match.getSavedTracks().add(track1);
+            entityManager.persist(match);
+
+            entityManager.persist(new SwipeEdge(new SwipeEdgeId(me.getId(), match.getId()), SwipeDirection.LIKE, true, null));
+            entityManager.persist(new SwipeEdge(new SwipeEdgeId(match.getId(), me.getId()), SwipeDirection.LIKE, true, null));
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+        return me.getId();
+    }
+
+    private User user(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@queueup.test");
+        user.setPassword("x");
+        user.setAge(25);
+        return user;
+    }
+
+    private Artist artist(String id) {
+        Artist artist = new Artist(id, id, null);
+        entityManager.persist(artist);
+        return artist;
+    }
+
+    private Track track(String id) {
+        Track track = new Track(id, id, null, null);
+        entityManager.persist(track);
+        return track;
+    }
+}
@@ -0,0 +1,94 @@
+package com.QueueUp.Backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Recall-vs-latency report for the approximate (MinHash/LSH) feed mode against the
+ * exact posting-list walk, on a synthetic population clustered into taste communities.
+ */
+class MinHashIndexTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(MinHashIndexTest.class);
+
+    private static final int USERS = 20_000;
+    private static final int COMMUNITIES = 200;
+    private static final int COMMUNITY_POOL = 150;
+    private static final int ITEMS_PER_CATEGORY = 20;
+    private static final int QUERIES = 200;
+    private static final int K = 20;
+
+    @Test
+    void approximateModeKeepsRecallAtAFractionOfExactLatency() {
+        Random random = new Random(7);
+        TasteIndex index = new TasteIndex(null, new CatalogInterner(), true, 32, 2);
+        ScoringEngine engine = new ScoringEngine(1, Integer.MAX_VALUE);
+
+        for (long userId = 1; userId <= USERS; userId++) {
+            index.indexUser(userId, syntheticSnapshot(random));
+        }
+
+        double recallSum = 0;
+        long exactNanos = 0;
+        long approximateNanos = 0;
+        long candidatesScored = 0;
+
+        for (long userId = 1; userId <= QUERIES; userId++) {
+            TasteSnapshot mine = index.snapshot(userId);
+
+            long start = System.nanoTime();
+            List<ScoredCandidate> exactTop = engine.rankTopK(mine, index.candidateIds(userId),
+                    index::snapshot, K, 1, null, id -> false);
+            long afterExact = System.nanoTime();
+            List<Long> approximate = index.approximateCandidateIds(userId);
+            List<ScoredCandidate> approximateTop = engine.rankTopK(mine, approximate,
+                    index::snapshot, K, 1, null, id -> false);
+            long afterApproximate = System.nanoTime();
+
+            exactNanos += afterExact - start;
+            approximateNanos += afterApproximate - afterExact;
+            candidatesScored += approximate.size();
+            recallSum += recall(exactTop, approximateTop);
+        }
+
+        double recall = recallSum / QUERIES;
+        logger.info(String.format("LSH report: users=%d queries=%d recall@%d=%.3f exact=%.2fms approximate=%.2fms candidates=%.0f",
+                USERS, QUERIES, K, recall,
+                exactNanos / 1e6 / QUERIES, approximateNanos / 1e6 / QUERIES,
+                (double) candidatesScored / QUERIES));
+
+        assertTrue(recall >= 0.9, "recall@" + K + " dropped to " + recall);
+        assertTrue(candidatesScored / QUERIES < USERS / 10, "LSH buckets are not narrowing the candidate set");
+    }
+
+    // A hit is any approximate result scoring at least as high as the exact K-th best (ties are interchangeable)
+    private double recall(List<ScoredCandidate> exactTop, List<ScoredCandidate> approximateTop) {
+        if (exactTop.isEmpty()) return 1.0;
+
+        int kthScore = exactTop.get(exactTop.size() - 1).score();
+        long hits = approximateTop.stream().filter(c -> c.score() >= kthScore).count();
+        return Math.min(1.0, (double) hits / exactTop.size());
+    }
+
+    // Most items come from the user's community, with a popularity skew, the rest from anywhere
+    private TasteSnapshot syntheticSnapshot(Random random) {
+        int community = random.nextInt(COMMUNITIES);
+        Map<TasteCategory, List<Integer>> items = new EnumMap<>(TasteCategory.class);
+
+        for (TasteCategory category : TasteCategory.values()) {
+            List<Integer> ids = new ArrayList<>();
+            for (int i = 0; i < ITEMS_PER_CATEGORY; i++) {
+                ids.add(random.nextDouble() < 0.8
+                        ? community * COMMUNITY_POOL + (int) (Math.abs(random.nextGaussian()) * 30) % COMMUNITY_POOL
+                        : random.nextInt(COMMUNITIES * COMMUNITY_POOL));
+            }
+            items.put(category, ids);
+        }
+        return TasteSnapshot.of(items);
+    }
+}
@@ -0,0 +1,63 @@
+package com.QueueUp.Backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PresignedUrlCacheTest {
+
+    private S3Presigner s3Presigner;
+    private PresignedUrlCache cache;
+
+    @BeforeEach
+    void setUp() {
+        s3Presigner = S3Presigner.builder()
+                .region(Region.US_EAST_1)
+                .credentialsProvider(StaticCredentialsProvider.create(
+                        AwsBasicCredentials.create("minioadmin", "minioadmin")))
+                .endpointOverride(URI.create("http://localhost:9000"))
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+                .build();
+        cache = new PresignedUrlCache(s3Presigner, "queueup-test", 100, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        s3Presigner.close();
+    }
+
+    @Test
+    void reusesUrlsWithinAnExpiryBucket() {
+        String url = cache.urlFor("1/chat_attachments/a.png", 30);
+
+        // 30s and 60s share the 60s bucket, signed for exactly that
+        assertSame(url, cache.urlFor("1/chat_attachments/a.png", 60));
+        assertTrue(url.contains("X-Amz-Expires=60"), url);
+        assertNotEquals(url, cache.urlFor("1/chat_attachments/a.png", 900));
+    }
+
+    @Test
+    void batchSignsMissingKeysAndReusesCachedOnes() {
+        String cached = cache.urlFor("1/chat_attachments/a.png", 900);
+
+        Map<String, String> urls = cache.urlsFor(
+                List.of("1/chat_attachments/a.png", "1/chat_attachments/b.mp4"), 900);
+
+        assertEquals(List.of("1/chat_attachments/a.png", "1/chat_attachments/b.mp4"), List.copyOf(urls.keySet()));
+        assertSame(cached, urls.get("1/chat_attachments/a.png"));
+        // Never signed past the 15 minute cap
+        assertTrue(urls.get("1/chat_attachments/b.mp4").contains("X-Amz-Expires=900"));
+    }
+}
@@ -0,0 +1,81 @@
+package com.QueueUp.Backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Part URLs signed for a local S3-compatible endpoint (the aws.endpoint setup used
+ * with MinIO). Signing happens locally, so nothing has to listen on the port.
+ */
+class S3MultipartUploadsTest {
+
+    private static final URI ENDPOINT = URI.create("http://localhost:9000");
+
+    private S3Client s3Client;
+    private S3Presigner s3Presigner;
+    private S3MultipartUploads uploads;
+
+    @BeforeEach
+    void setUp() {
+        StaticCredentialsProvider credentials = StaticCredentialsProvider.create(
+                AwsBasicCredentials.create("minioadmin", "minioadmin"));
+        s3Client = S3Client.builder()
+                .region(Region.US_EAST_1)
+                .credentialsProvider(credentials)
+                .endpointOverride(ENDPOINT)
+                .forcePathStyle(true)
+                .build();
+        s3Presigner = S3Presigner.builder()
+                .region(Region.US_EAST_1)
+                .credentialsProvider(credentials)
+                .endpointOverride(ENDPOINT)
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+                .build();
+        uploads = new S3MultipartUploads(s3Client, s3Presigner, new S3StreamUploader(s3Client, 0, 0),
+                "queueup-test", 900, 8 * 1024 * 1024);
+    }
+
+    @AfterEach
+    void tearDown() {
+        s3Presigner.close();
+        s3Client.close();
+    }
+
+    @Test
+    void presignsEveryRequestedPartAgainstTheLocalEndpoint() {
+        String key = "7/chat_attachments/1_video.mp4";
+
+        Map<Integer, String> urls = uploads.presignParts(7L, key, "upload-1", List.of(3, 1, 2));
+
+        assertEquals(List.of(1, 2, 3), List.copyOf(urls.keySet()));
+        urls.forEach((partNumber, url) -> {
+            assertTrue(url.startsWith("http://localhost:9000/queueup-test/" + key + "?"), url);
+            assertTrue(url.contains("partNumber=" + partNumber), url);
+            assertTrue(url.contains("uploadId=upload-1"), url);
+            assertTrue(url.contains("X-Amz-Signature="), url);
+        });
+    }
+
+    @Test
+    void rejectsKeysOfOtherUsersAndInvalidPartNumbers() {
+        assertThrows(RuntimeException.class,
+                () -> uploads.presignParts(8L, "7/chat_attachments/1_video.mp4", "upload-1", List.of(1)));
+        assertThrows(RuntimeException.class,
+                () -> uploads.presignParts(7L, "7/chat_attachments/1_video.mp4", "upload-1", List.of(0)));
+        assertThrows(RuntimeException.class,
+                () -> uploads.abort(8L, "7/chat_attachments/1_video.mp4", "upload-1"));
+    }
+}
@@ -0,0 +1,48 @@
+package com.QueueUp.Backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ScoringEngineTest {
+
+    @Test
+    void parallelRankingMatchesSingleThreadedRanking() {
+        Random random = new Random(11);
+        Map<Long, TasteSnapshot> snapshots = new HashMap<>();
+        for (long userId = 0; userId < 10_000; userId++) {
+            snapshots.put(userId, randomSnapshot(random));
+        }
+
+        TasteSnapshot mine = snapshots.get(0L);
+        List<Long> candidates = new ArrayList<>(snapshots.keySet());
+        candidates.remove(0L);
+        Set<Long> excluded = Set.of(1L, 2L, 3L);
+        ScoredCandidate after = new ScoredCandidate(500, 6);
+
+        ScoringEngine sequential = new ScoringEngine(1, Integer.MAX_VALUE);
+        ScoringEngine parallel = new ScoringEngine(4, 100);
+        try {
+            assertEquals(
+                    sequential.rankTopK(mine, candidates, snapshots::get, 50, 1, after, excluded::contains),
+                    parallel.rankTopK(mine, candidates, snapshots::get, 50, 1, after, excluded::contains));
+        } finally {
+            sequential.shutdown();
+            parallel.shutdown();
+        }
+    }
+
+    private TasteSnapshot randomSnapshot(Random random) {
+        Map<TasteCategory, List<Integer>> items = new EnumMap<>(TasteCategory.class);
+        for (TasteCategory category : TasteCategory.values()) {
+            List<Integer> ids = new ArrayList<>();
+            for (int i = 0; i < 15; i++) {
+                ids.add(random.nextInt(400));
+            }
+            items.put(category, ids);
+        }
+        return TasteSnapshot.of(items);
+    }
+}
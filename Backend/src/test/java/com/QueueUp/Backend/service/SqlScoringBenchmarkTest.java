@@ -0,0 +1,115 @@
+package com.QueueUp.Backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Latency comparison of the two feed engines, the in-memory taste index plus
+ * ScoringEngine against the Postgres overlap query, on a synthetic population
+ * seeded into the configured database. Needs a real Postgres, so it only runs
+ * with QUEUEUP_BENCHMARK=true; the seed data is rolled back afterwards.
+ */
+@SpringBootTest
+@Transactional
+@EnabledIfEnvironmentVariable(named = "QUEUEUP_BENCHMARK", matches = "true")
+class SqlScoringBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlScoringBenchmarkTest.class);
+
+    private static final int USERS = 5_000;
+    private static final int CATALOG = 3_000;
+    private static final int ITEMS_PER_CATEGORY = 20;
+    private static final int QUERIES = 50;
+    private static final int K = 500;
+
+    // category -> join table and its item column
+    private static final Map<TasteCategory, String[]> JOIN_TABLES = Map.of(
+            TasteCategory.TOP_ARTISTS, new String[]{"user_top_artists", "artist_id"},
+            TasteCategory.TOP_TRACKS, new String[]{"user_top_tracks", "track_id"},
+            TasteCategory.SAVED_TRACKS, new String[]{"user_saved_tracks", "track_id"},
+            TasteCategory.FOLLOWED_ARTISTS, new String[]{"user_followed_artists", "artist_id"});
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SqlScoringEngine sqlScoringEngine;
+
+    @Test
+    void sqlEngineRanksLikeTheIndexEngine() {
+        Random random = new Random(3);
+        List<Long> userIds = seedUsers();
+        CatalogInterner interner = new CatalogInterner();
+        TasteIndex index = new TasteIndex(null, interner, false, 0, 0);
+        ScoringEngine engine = new ScoringEngine(0, 2000);
+
+        Map<TasteCategory, List<Object[]>> joinRows = new EnumMap<>(TasteCategory.class);
+        for (Long userId : userIds) {
+            Map<TasteCategory, List<Integer>> items = new EnumMap<>(TasteCategory.class);
+            for (TasteCategory category : TasteCategory.values()) {
+                Set<String> picked = new HashSet<>();
+                while (picked.size() < ITEMS_PER_CATEGORY) {
+                    // Popularity skew so some items are shared by many users
+                    picked.add("bench-" + (int) (CATALOG * Math.pow(random.nextDouble(), 2)));
+                }
+                picked.forEach(itemId -> joinRows.computeIfAbsent(category, k -> new ArrayList<>()).add(new Object[]{userId, itemId}));
+                items.put(category, picked.stream().map(interner::intern).toList());
+            }
+            index.indexUser(userId, TasteSnapshot.of(items));
+        }
+        seedItems(joinRows);
+
+        long indexNanos = 0;
+        long sqlNanos = 0;
+        for (Long userId : userIds.subList(0, QUERIES)) {
+            long start = System.nanoTime();
+            List<ScoredCandidate> fromIndex = engine.rankTopK(index.snapshot(userId), index.candidateIds(userId),
+                    index::snapshot, K, 1, null, id -> false);
+            long afterIndex = System.nanoTime();
+            List<ScoredCandidate> fromSql = sqlScoringEngine.rankTopK(userId, K, null);
+            long afterSql = System.nanoTime();
+
+            indexNanos += afterIndex - start;
+            sqlNanos += afterSql - afterIndex;
+            assertEquals(fromIndex, fromSql);
+        }
+        engine.shutdown();
+
+        logger.info(String.format("Engine report: users=%d queries=%d top-%d index=%.2fms sql=%.2fms",
+                USERS, QUERIES, K, indexNanos / 1e6 / QUERIES, sqlNanos / 1e6 / QUERIES));
+    }
+
+    private List<Long> seedUsers() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            rows.add(new Object[]{"Bench " + i, "bench-" + i + "@queueup.test", "x", 25});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO app_user (name, email, password, age, bio, image, is_bot) " +
+                "VALUES (?, ?, ?, ?, '', '', false)", rows);
+        return jdbcTemplate.queryForList("SELECT id FROM app_user WHERE email LIKE 'bench-%@queueup.test' ORDER BY id", Long.class);
+    }
+
+    private void seedItems(Map<TasteCategory, List<Object[]>> joinRows) {
+        List<Object[]> catalog = new ArrayList<>();
+        for (int i = 0; i < CATALOG; i++) {
+            catalog.add(new Object[]{"bench-" + i, "Bench item " + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO artist (spotify_id, name) VALUES (?, ?) ON CONFLICT DO NOTHING", catalog);
+        jdbcTemplate.batchUpdate("INSERT INTO track (spotify_id, name) VALUES (?, ?) ON CONFLICT DO NOTHING", catalog);
+
+        joinRows.forEach((category, rows) -> {
+            String[] table = JOIN_TABLES.get(category);
+            jdbcTemplate.batchUpdate("INSERT INTO " + table[0] + " (user_id, " + table[1] + ") VALUES (?, ?)", rows);
+        });
+    }
+}
@@ -0,0 +1,55 @@
+package com.QueueUp.Backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoaringIdSetTest {
+
+    @Test
+    void behavesLikeAHashSetAcrossSparseAndDenseContainers() {
+        Random random = new Random(7);
+        RoaringIdSet ids = new RoaringIdSet();
+        Set<Long> expected = new HashSet<>();
+
+        // Dense run in the first container forces an array -> bitmap switch, the rest stay sparse
+        for (long id = 0; id < 10_000; id++) {
+            assertEquals(expected.add(id), ids.add(id));
+        }
+        for (int i = 0; i < 20_000; i++) {
+            long id = random.nextInt(5_000_000);
+            if (random.nextInt(4) == 0) {
+                assertEquals(expected.remove(id), ids.remove(id));
+            } else {
+                assertEquals(expected.add(id), ids.add(id));
+            }
+        }
+
+        assertEquals(expected.size(), ids.size());
+        for (long id = 0; id < 5_000_000; id += 7) {
+            assertEquals(expected.contains(id), ids.contains(id));
+        }
+        expected.forEach(id -> assertTrue(ids.contains(id)));
+    }
+
+    @Test
+    void copyIsIndependentOfTheOriginal() {
+        RoaringIdSet ids = new RoaringIdSet();
+        ids.add(1L);
+        ids.add(70_000L);
+
+        RoaringIdSet copy = ids.copy();
+        ids.add(2L);
+        ids.remove(70_000L);
+
+        assertTrue(copy.contains(70_000L));
+        assertEquals(2, copy.size());
+        assertFalse(copy.contains(2L));
+    }
+}
@@ -7,12 +7,39 @@ import { axiosInstance } from "../lib/axios";
 import { toast } from "react-hot-toast";
 import LinkPreviewCard from "./LinkPreviewCard";
 import { getSocket } from "../socket/socket.client";
+import { multipartUpload } from "../lib/multipartUpload";
 
 const MAX_ATTACHMENTS = 10;
+const MULTIPART_THRESHOLD = 16 * 1024 * 1024; // larger files upload in parallel parts
 
 const extractUrls = (text = "") =>
 	Array.from(text.matchAll(/(https?:\/\/[^\s]+)/gi), (m) => m[1]);
 
+// send the raw bytes to the backend, which streams them to S3 and returns a handle
+const streamUpload = async (file, name) => {
+	const { data } = await axiosInstance.post("/uploads/s3/stream", file, {
+		params: { name },
+		headers: { "Content-Type": file.type || "application/octet-stream" },
+	});
+	return data; // { key, url, name, size, sha256, deduplicated }
+};
+
+const sha256Hex = async (file) => {
+	const digest = await crypto.subtle.digest("SHA-256", await file.arrayBuffer());
+	return Array.from(new Uint8Array(digest), (b) => b.toString(16).padStart(2, "0")).join("");
+};
+
+// a file the server already stores (same SHA-256) is attached by reference without uploading it
+const uploadDeduplicated = async (file, name) => {
+	if (crypto?.subtle) {
+		const { data } = await axiosInstance.post("/uploads/s3/lookup", {
+			sha256: await sha256Hex(file),
+		});
+		if (data.found) return data;
+	}
+	return streamUpload(file, name);
+};
+
 const MessageInput = ({ match }) => {
 	const [message, setMessage] = useState("");
 	const [linkPreviews, setLinkPreviews] = useState([]); // array of {url, preview, include}
@@ -109,44 +136,23 @@ const MessageInput = ({ match }) => {
 				category = "archive";
 			else category = "other";
 
-			// media → Cloudinary via base64
-			if (["image", "video", "audio"].includes(category)) {
-				const reader = new FileReader();
-				reader.onloadend = () => {
-					setAttachments((prev) => [
-						...prev,
-						{ data: reader.result, name, ext, category },
-					]);
-				};
-				reader.readAsDataURL(file);
-			} else {
+			// large files → parallel multipart upload straight to S3
+			if (file.size >= MULTIPART_THRESHOLD) {
 				try {
-					// get presigned URL + key from server
-					const { data } = await axiosInstance.post("/uploads/s3/presign", {
-						name,
-						type: file.type,
-					});
-					const { url, key } = data;
-
-					// PUT the file to S3
-					await fetch(url, {
-						method: "PUT",
-						body: file,
-						headers: { "Content-Type": file.type },
-					});
-
-					// build the public URL
-					const publicUrl = `https://${import.meta.env.VITE_S3_BUCKET}.s3.${
-						import.meta.env.VITE_AWS_REGION
-					}.amazonaws.com/${key}`;
-
-					// push into attachments
-					setAttachments((prev) => [
-						...prev,
-						{ url: publicUrl, key, name, ext, category },
-					]);
+					const { key, url } = await multipartUpload(file, name);
+					setAttachments((prev) => [...prev, { url, key, name, ext, category }]);
 				} catch (err) {
-					console.error("S3 upload failed", err);
+					console.error("Multipart upload failed", err);
+					toast.error("Could not upload file. Please try again.");
+				}
+			}
+			// everything else → looked up by content hash, streamed through the backend to S3 if new
+			else {
+				try {
+					const { key, url } = await uploadDeduplicated(file, name);
+					setAttachments((prev) => [...prev, { url, key, name, ext, category }]);
+				} catch (err) {
+					console.error("Upload failed", err);
 					toast.error("Could not upload file. Please try again.");
 				}
 			}
@@ -173,25 +179,24 @@ const MessageInput = ({ match }) => {
 			mediaRecorderRef.current.ondataavailable = (e) => {
 				if (e.data.size > 0) recordedChunksRef.current.push(e.data);
 			};
-			mediaRecorderRef.current.onstop = () => {
+			mediaRecorderRef.current.onstop = async () => {
 				const blob = new Blob(recordedChunksRef.current, {
 					type: "audio/webm",
 				});
-				const reader = new FileReader();
-				reader.onloadend = () => {
+				// stop all mic tracks
+				stream.getTracks().forEach((t) => t.stop());
+
+				const name = `voice-${Date.now()}.webm`;
+				try {
+					const { key, url } = await streamUpload(blob, name);
 					setAttachments((prev) => [
 						...prev,
-						{
-							data: reader.result, // base64 data-url
-							name: `voice-${Date.now()}.webm`,
-							ext: "webm",
-							category: "audio",
-						},
+						{ url, key, name, ext: "webm", category: "audio" },
 					]);
-				};
-				reader.readAsDataURL(blob);
-				// stop all mic tracks
-				stream.getTracks().forEach((t) => t.stop());
+				} catch (err) {
+					console.error("Upload failed", err);
+					toast.error("Could not upload voice message. Please try again.");
+				}
 			};
 
 			mediaRecorderRef.current.start();
@@ -1,5 +1,5 @@
 // components/PreviewAttachment.jsx
-import React from "react";
+import React, { useEffect, useState } from "react";
 import {
 	FaFilePdf,
 	FaFileWord,
@@ -8,18 +8,66 @@ import {
 	FaFileArchive,
 	FaFileAlt,
 } from "react-icons/fa";
+import { getDownloadUrl } from "../lib/presignedUrls";
 
 export default function PreviewAttachment({ attachment, onClick }) {
-	const src = attachment.data || attachment.url;
 	const { category, name, ext } = attachment;
 
+	// S3 media render from presigned URLs, one batched request for all bubbles of a chat
+	const [signedUrl, setSignedUrl] = useState(null);
+	// images with a thumbnail never load the original in the bubble
+	const hasThumbnail = category === "image" && attachment.thumbnailUrl;
+	const isS3Media =
+		!hasThumbnail &&
+		attachment.key &&
+		attachment.url?.includes(`${import.meta.env.VITE_S3_BUCKET}.s3.`) &&
+		["image", "video", "audio"].includes(category);
+	useEffect(() => {
+		if (!isS3Media) return;
+		let active = true;
+		getDownloadUrl(attachment.key, 900)
+			.then((url) => active && setSignedUrl(url))
+			.catch((err) => console.log("Could not sign attachment URL", err));
+		return () => {
+			active = false;
+		};
+	}, [isS3Media, attachment.key]);
+
+	const src = attachment.data || signedUrl || attachment.url;
+	const bubbleSrc = hasThumbnail ? attachment.thumbnailUrl : src;
+
+	// Uploaded in the background after the message was sent
+	if (!src && attachment.status === "pending") {
+		return (
+			<div className="flex items-center space-x-2 text-left">
+				<div className="w-8 h-8 border-4 border-gray-500 border-t-transparent rounded-full animate-spin" />
+				<div className="w-38">
+					<div className="font-medium truncate text-gray-100">{name}</div>
+					<div className="text-sm text-gray-400">Uploading…</div>
+				</div>
+			</div>
+		);
+	}
+	if (!src && attachment.status === "failed") {
+		return (
+			<div className="flex items-center space-x-2 text-left">
+				<FaFileAlt size={32} className="text-gray-500" />
+				<div className="w-38">
+					<div className="font-medium truncate text-gray-100">{name}</div>
+					<div className="text-sm text-red-400">Upload failed</div>
+				</div>
+			</div>
+		);
+	}
+
 	switch (category) {
 		case "image":
 			return (
 				<div className="w-50 h-[7.38rem] bg-[#1f1f1f] rounded-sm overflow-hidden">
 					<img
-						src={src}
+						src={bubbleSrc}
 						alt={name}
+						loading="lazy"
 						onClick={onClick}
 						className="w-full h-full object-contain cursor-pointer"
 					/>
@@ -30,6 +78,8 @@ export default function PreviewAttachment({ attachment, onClick }) {
 				<div className="w-50 h-32 rounded-sm overflow-hidden">
 					<video
 						src={src}
+						poster={attachment.posterUrl}
+						preload={attachment.posterUrl ? "none" : "metadata"}
 						controls
 						onClick={onClick}
 						className="w-full h-full object-contain"
@@ -3,6 +3,7 @@ import { X, Loader, Disc3, MessageCircle } from "lucide-react";
 import { Link } from "react-router-dom";
 import { useMatchStore } from "../store/useMatchStore";
 import { useAuthStore } from "../store/useAuthStore";
+import { useMessageStore } from "../store/useMessageStore";
 
 const Sidebar = () => {
 	const [isOpen, setIsOpen] = useState(false);
@@ -10,10 +11,12 @@ const Sidebar = () => {
 
 	const { getMyMatches, matches, isLoadingMyMatches } = useMatchStore();
 	const { onlineUsers } = useAuthStore();
+	const { inbox, getInbox } = useMessageStore();
 
 	useEffect(() => {
 		getMyMatches();
-	}, [getMyMatches]);
+		getInbox();
+	}, [getMyMatches, getInbox]);
 
 	return (
 		<>
@@ -42,6 +45,8 @@ const Sidebar = () => {
 						) : (
 							matches.map((match) => {
 								const isOnline = onlineUsers.includes(match._id) || match.isBot;
+								const conversation = inbox[match._id];
+								const unreadCount = conversation?.unreadCount || 0;
 
 								return (
 									<Link key={match._id} to={`/chat/${match._id}`}>
@@ -59,9 +64,27 @@ const Sidebar = () => {
 												)}
 											</div>
 
-											<h3 className="font-semibold text-gray-100">
-												{match.name}
-											</h3>
+											<div className="min-w-0 flex-grow">
+												<h3 className="font-semibold text-gray-100">
+													{match.name}
+												</h3>
+												{conversation?.snippet && (
+													<p
+														className={`text-sm truncate ${
+															unreadCount > 0 ? "text-gray-100" : "text-gray-400"
+														}`}
+													>
+														{conversation.snippet}
+													</p>
+												)}
+											</div>
+
+											{/* Unread Badge */}
+											{unreadCount > 0 && (
+												<span className="ml-2 min-w-5 h-5 px-1.5 flex items-center justify-center bg-[#1DB954] text-black text-xs font-bold rounded-full">
+													{unreadCount}
+												</span>
+											)}
 										</div>
 									</Link>
 								);
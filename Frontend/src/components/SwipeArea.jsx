@@ -1,9 +1,15 @@
+import { useEffect } from "react";
 import TinderCard from "react-tinder-card";
 import { useMatchStore } from "../store/useMatchStore";
 import SharedChipsWithModal from "./SharedChipsWithModal";
 
 const SwipeArea = () => {
-	const { userProfiles, swipeRight, swipeLeft } = useMatchStore();
+	const { userProfiles, swipeRight, swipeLeft, sharedItems, getSharedItems } = useMatchStore();
+
+	// the last card is rendered on top, expand its shared music (and the one right under it)
+	useEffect(() => {
+		userProfiles.slice(-2).forEach((user) => getSharedItems(user._id));
+	}, [userProfiles, getSharedItems]);
 
 	const handleSwipe = (dir, user) => {
 		if (dir === "right") swipeRight(user);
@@ -44,7 +50,7 @@ const SwipeArea = () => {
 
 							{/* Shared Artists (pink) */}
 							<SharedChipsWithModal
-								items={user.commonArtists}
+								items={sharedItems[user._id]?.commonArtists ?? []}
 								icon="🎵"
 								title="Shared Artists"
 								bg="pink"
@@ -54,7 +60,7 @@ const SwipeArea = () => {
 
 							{/* Shared Tracks (blue) */}
 							<SharedChipsWithModal
-								items={user.commonTracks}
+								items={sharedItems[user._id]?.commonTracks ?? []}
 								icon="🎶"
 								title="Shared Tracks"
 								bg="blue"
@@ -64,7 +70,7 @@ const SwipeArea = () => {
 
 							{/* Both Saved (green) */}
 							<SharedChipsWithModal
-								items={user.commonSaved}
+								items={sharedItems[user._id]?.commonSaved ?? []}
 								icon="💾"
 								title="Both Saved Tracks"
 								bg="green"
@@ -74,7 +80,7 @@ const SwipeArea = () => {
 
 							{/* Shared Followed (purple) */}
 							<SharedChipsWithModal
-								items={user.commonFollowed}
+								items={sharedItems[user._id]?.commonFollowed ?? []}
 								icon="⭐"
 								title="Followed Artists"
 								bg="purple"
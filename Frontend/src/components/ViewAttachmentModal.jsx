@@ -17,7 +17,7 @@ import {
 	FaFilePowerpoint,
 	FaFileArchive,
 } from "react-icons/fa";
-import { axiosInstance } from "../lib/axios";
+import { getDownloadUrl } from "../lib/presignedUrls";
 import JSZip from "jszip";
 import Papa from "papaparse";
 import DataTable from "react-data-table-component";
@@ -134,17 +134,14 @@ const ViewAttachmentModal = ({ attachment, onClose }) => {
 						"pptx",
 					].includes(ext);
 
-					const { data } = await axiosInstance.post(
-						"/uploads/s3/presign-download",
-						{
-							key: attachment.key,
-							expiresIn: isOfficeFile ? 900 : 60, // 15 minutes for Office files, 1 min for others
-						}
+					const url = await getDownloadUrl(
+						attachment.key,
+						isOfficeFile ? 900 : 60 // 15 minutes for Office files, 1 min for others
 					);
 
-					setPublicUrl(data.url);
+					setPublicUrl(url);
 
-					const blob = await fetch(data.url).then((r) => r.blob());
+					const blob = await fetch(url).then((r) => r.blob());
 					blobUrl = URL.createObjectURL(blob);
 					setRawSrc(blobUrl);
 				} else {
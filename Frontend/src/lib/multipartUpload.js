@@ -0,0 +1,75 @@
+import { axiosInstance } from "./axios";
+
+const PART_CONCURRENCY = 4;
+const PART_ATTEMPTS = 3;
+
+// PUT one part to its presigned URL, S3 answers with the part's ETag
+// (the bucket's CORS rules must expose the ETag header)
+const putPart = async (url, blob) => {
+	const res = await fetch(url, { method: "PUT", body: blob });
+	if (!res.ok) throw new Error(`Part upload failed with ${res.status}`);
+	return res.headers.get("ETag");
+};
+
+// Upload a large file straight to S3 in parallel parts, retrying parts that fail.
+// Resolves to { key, url } once S3 has assembled the object.
+export const multipartUpload = async (file, name) => {
+	const { data: started } = await axiosInstance.post("/uploads/s3/multipart/create", {
+		name,
+		type: file.type || "application/octet-stream",
+	});
+	const { key, uploadId, partSize } = started;
+	const partCount = Math.max(1, Math.ceil(file.size / partSize));
+	const blobOf = (n) => file.slice((n - 1) * partSize, n * partSize);
+
+	try {
+		const etags = {};
+		let pending = Array.from({ length: partCount }, (_, i) => i + 1);
+
+		for (let attempt = 1; pending.length > 0; attempt++) {
+			if (attempt > PART_ATTEMPTS) throw new Error("Parts kept failing");
+
+			// one request signs every part still missing
+			const { data } = await axiosInstance.post("/uploads/s3/multipart/presign-parts", {
+				key,
+				uploadId,
+				partNumbers: pending,
+			});
+
+			const queue = [...pending];
+			const failed = [];
+			const worker = async () => {
+				while (queue.length > 0) {
+					const n = queue.shift();
+					try {
+						etags[n] = await putPart(data.urls[n], blobOf(n));
+					} catch (err) {
+						console.log(`Part ${n} failed`, err);
+						failed.push(n);
+					}
+				}
+			};
+			await Promise.all(
+				Array.from({ length: Math.min(PART_CONCURRENCY, queue.length) }, worker)
+			);
+			pending = failed.sort((a, b) => a - b);
+		}
+
+		const parts = Object.entries(etags).map(([n, eTag]) => ({
+			partNumber: Number(n),
+			eTag,
+		}));
+		const { data } = await axiosInstance.post("/uploads/s3/multipart/complete", {
+			key,
+			uploadId,
+			parts,
+		});
+		return data;
+	} catch (err) {
+		// don't leave orphaned parts billed in the bucket
+		axiosInstance
+			.post("/uploads/s3/multipart/abort", { key, uploadId })
+			.catch(() => {});
+		throw err;
+	}
+};
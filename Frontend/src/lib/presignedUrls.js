@@ -0,0 +1,45 @@
+import { axiosInstance } from "./axios";
+
+// key|expiresIn -> { url, reuseUntil }
+const cache = new Map();
+// expiresIn -> Map(key -> [resolve, reject][])
+const pending = new Map();
+
+const flush = async (expiresIn) => {
+	const waiting = pending.get(expiresIn);
+	pending.delete(expiresIn);
+	const keys = [...waiting.keys()];
+
+	try {
+		// one request signs every attachment asked for in the same tick
+		const { data } = await axiosInstance.post("/uploads/s3/presign-download/batch", {
+			keys,
+			expiresIn,
+		});
+		// the URL has at least half of expiresIn left when issued, reuse it for a quarter
+		const reuseUntil = Date.now() + (expiresIn * 1000) / 4;
+		keys.forEach((key) => {
+			const url = data.urls[key];
+			cache.set(`${key}|${expiresIn}`, { url, reuseUntil });
+			waiting.get(key).forEach(([resolve]) => resolve(url));
+		});
+	} catch (err) {
+		waiting.forEach((callbacks) => callbacks.forEach(([, reject]) => reject(err)));
+	}
+};
+
+// Presigned download URL for an S3 key, batched and cached
+export const getDownloadUrl = (key, expiresIn = 60) => {
+	const cached = cache.get(`${key}|${expiresIn}`);
+	if (cached && cached.reuseUntil > Date.now()) return Promise.resolve(cached.url);
+
+	return new Promise((resolve, reject) => {
+		if (!pending.has(expiresIn)) {
+			pending.set(expiresIn, new Map());
+			setTimeout(() => flush(expiresIn), 0);
+		}
+		const waiting = pending.get(expiresIn);
+		if (!waiting.has(key)) waiting.set(key, []);
+		waiting.get(key).push([resolve, reject]);
+	});
+};
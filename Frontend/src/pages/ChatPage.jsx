@@ -46,6 +46,9 @@ const ChatPage = () => {
 		messages,
 		sendMessage,
 		getMessages,
+		loadOlderMessages,
+		nextBefore,
+		loadingOlder,
 		subscribeToMessages,
 		unsubscribeFromMessages,
 		isTyping,
@@ -58,6 +61,8 @@ const ChatPage = () => {
 	const [linkPreviewMap, setLinkPreviewMap] = useState({}); // message._id -> [{ url, preview }]
 
 	const messagesEndRef = useRef(null); // dummy div to scroll to the bottom of the chat
+	const messagesContainerRef = useRef(null);
+	const prependOffsetRef = useRef(null); // distance from the bottom before older messages were prepended
 	const initialScrollRef = useRef(true);
 	const playerRevealTimeoutRef = useRef(null);
 	const currentTrackIdRef = useRef(null);
@@ -113,6 +118,14 @@ const ChatPage = () => {
 
 	// Scroll to the bottom of the chat on initial load and new messages
 	useLayoutEffect(() => {
+		// Older messages were prepended: keep the same messages in view instead
+		const container = messagesContainerRef.current;
+		if (prependOffsetRef.current !== null && container) {
+			container.scrollTop = container.scrollHeight - prependOffsetRef.current;
+			prependOffsetRef.current = null;
+			return;
+		}
+
 		const behavior = initialScrollRef.current ? "auto" : "smooth";
 		messagesEndRef.current?.scrollIntoView({ behavior, block: "end" });
 		if ((messages.length > 0 || isTyping) && initialScrollRef.current) {
@@ -155,6 +168,16 @@ const ChatPage = () => {
 		fetchPreviews();
 	}, [messages]);
 
+	// Load the previous page of history when the top of the chat is reached
+	const handleMessagesScroll = async (e) => {
+		if (e.currentTarget.scrollTop > 80 || !nextBefore || loadingOlder) return;
+
+		const container = e.currentTarget;
+		prependOffsetRef.current = container.scrollHeight - container.scrollTop;
+		const loaded = await loadOlderMessages(id);
+		if (!loaded) prependOffsetRef.current = null;
+	};
+
 	const tracks = filterBad(match?.commonTracks);
 	const currentTrack = tracks[trackIndex];
 	const currentTrackId = currentTrack?.id;
@@ -313,7 +336,16 @@ const ChatPage = () => {
 					)}
 				</div>
 
-				<div className="flex-grow overflow-y-auto mb-4 bg-[#121212] border border-[#2a2a2a] rounded-lg shadow p-4">
+				<div
+					ref={messagesContainerRef}
+					onScroll={handleMessagesScroll}
+					className="flex-grow overflow-y-auto mb-4 bg-[#121212] border border-[#2a2a2a] rounded-lg shadow p-4"
+				>
+					{loadingOlder && (
+						<div className="flex justify-center mb-3">
+							<Loader size={20} className="text-[#1DB954] animate-spin" />
+						</div>
+					)}
 					{/* No messages yet */}
 					{messages.length === 0 ? (
 						<div className="text-center text-gray-400 p-4">
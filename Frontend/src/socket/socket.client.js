@@ -10,6 +10,21 @@ let userId = null; // Store userId to allow reconnection
 let reconnectTimer = null;
 const listeners = {}; // Stores event callbacks: { 'newMatch': [cb1, cb2] }
 
+// Outbox events can arrive twice (delivery is retried until the write succeeds), remember recent ids
+const SEEN_EVENT_LIMIT = 1000;
+const seenEventIds = new Set();
+
+const isRepeat = (eventId) => {
+	if (eventId == null) return false;
+	if (seenEventIds.has(eventId)) return true;
+	seenEventIds.add(eventId);
+	if (seenEventIds.size > SEEN_EVENT_LIMIT) {
+		// Sets iterate in insertion order, so this drops the oldest id
+		seenEventIds.delete(seenEventIds.values().next().value);
+	}
+	return false;
+};
+
 export const initializeSocket = (id) => {
 	// If ID is provided, update our stored ID. If not, use the stored one (for reconnects)
 	if (id) userId = id;
@@ -54,7 +69,8 @@ export const initializeSocket = (id) => {
 	// 2. Handle Incoming Messages (Parse JSON -> Trigger Listeners)
 	socket.onmessage = (event) => {
 		try {
-			const data = JSON.parse(event.data); // Expected: { type: "eventName", payload: ... }
+			const data = JSON.parse(event.data); // Expected: { id, type: "eventName", payload: ... }
+			if (isRepeat(data.id)) return;
 			const eventName = data.type;
 			const payload = data.payload;
 
@@ -3,10 +3,23 @@ import { axiosInstance } from "../lib/axios";
 import toast from "react-hot-toast";
 import { getSocket } from "../socket/socket.client";
 
+const FEED_PAGE_SIZE = 20;
+const FEED_REFILL_THRESHOLD = 5;
+const SWIPE_BATCH_SIZE = 5; // flush the swipe queue every few cards
+const SWIPE_FLUSH_DELAY_MS = 3000; // ...or shortly after the last swipe
+
+// swipes not yet sent to the server, in the order they were made
+let pendingSwipes = [];
+let swipeFlushTimer = null;
+let swipeFlushInFlight = null;
+
 export const useMatchStore = create((set, get) => ({
 	matches: [], // list of matches
 	isLoadingUserProfiles: false,
 	userProfiles: [],
+	feedCursor: null, // opaque cursor for the next page of the feed
+	isLoadingMoreProfiles: false,
+	sharedItems: {}, // shared music per profile id, fetched lazily for the card on top
 	swipeFeedback: null,
 
 	getMyMatches: async () => {
@@ -31,8 +44,14 @@ export const useMatchStore = create((set, get) => ({
 			if (showLoading) {
 				set({ isLoadingUserProfiles: true });
 			}
-			const res = await axiosInstance.get("/matches/user-profiles"); //  Sends a GET request to the backend to fetch all other users
+			// queued swipes must reach the server first, or swiped users could come back
+			await get().flushSwipes();
+			// Sends a GET request to the backend to fetch the first page of other users
+			const res = await axiosInstance.get("/matches/user-profiles", {
+				params: { limit: FEED_PAGE_SIZE },
+			});
 			const nextProfiles = res.data?.users ?? [];
+			set({ feedCursor: res.data?.nextCursor ?? null });
 
 			const latestProfiles = get().userProfiles;
 			if (merge && latestProfiles.length > 0) {
@@ -59,40 +78,116 @@ export const useMatchStore = create((set, get) => ({
 		}
 	},
 
-	swipeLeft: async (user) => {
-		try {
-			set({ swipeFeedback: "passed" });
+	// fetch the next page once the deck runs low, so only a few cards are loaded at a time
+	loadMoreUserProfiles: async () => {
+		const { feedCursor, isLoadingMoreProfiles, userProfiles } = get();
+		if (!feedCursor || isLoadingMoreProfiles || userProfiles.length > FEED_REFILL_THRESHOLD) return;
 
-			set((state) => ({
-				userProfiles: state.userProfiles.filter((p) => p._id !== user._id),
-			}));
+		try {
+			set({ isLoadingMoreProfiles: true });
+			await get().flushSwipes();
+			const res = await axiosInstance.get("/matches/user-profiles", {
+				params: { limit: FEED_PAGE_SIZE, cursor: feedCursor },
+			});
+			const nextProfiles = res.data?.users ?? [];
 
-			await axiosInstance.post("/matches/swipe-left/" + user._id); // Sends a POST request to the backend to put the other user in the disliked array of the current user
+			set((state) => {
+				const existingIds = new Set(state.userProfiles.map((profile) => profile._id));
+				const appendedProfiles = nextProfiles.filter((profile) => !existingIds.has(profile._id));
+				// new cards go underneath the ones already on the deck
+				return {
+					userProfiles: [...appendedProfiles.reverse(), ...state.userProfiles],
+					feedCursor: res.data?.nextCursor ?? null,
+				};
+			});
 		} catch (error) {
 			console.log(error);
-			toast.error("Failed to swipe left!"); // Show error message
 		} finally {
-			setTimeout(() => set({ swipeFeedback: null }), 1500); // show 'disliked' message for 1.5 sec
+			set({ isLoadingMoreProfiles: false });
 		}
 	},
 
-	swipeRight: async (user) => {
-		try {
-			set({ swipeFeedback: "liked" });
+	// the feed only carries scores, so the shared artists/tracks are fetched for the card being viewed
+	getSharedItems: async (userId) => {
+		if (get().sharedItems[userId]) return;
 
+		try {
+			const res = await axiosInstance.get(`/matches/${userId}/shared`);
 			set((state) => ({
-				userProfiles: state.userProfiles.filter((p) => p._id !== user._id),
+				sharedItems: { ...state.sharedItems, [userId]: res.data.shared },
 			}));
-
-			await axiosInstance.post("/matches/swipe-right/" + user._id); // Sends a POST request to the backend to put the other user in the liked array of the current user
 		} catch (error) {
 			console.log(error);
-			toast.error("Failed to swipe right!"); // Show error message
-		} finally {
-			setTimeout(() => set({ swipeFeedback: null }), 1500); // show 'liked' message for 1.5 sec
 		}
 	},
 
+	swipeLeft: (user) => {
+		set({ swipeFeedback: "passed" });
+		get().queueSwipe(user, "left");
+		setTimeout(() => set({ swipeFeedback: null }), 1500); // show 'disliked' message for 1.5 sec
+	},
+
+	swipeRight: (user) => {
+		set({ swipeFeedback: "liked" });
+		get().queueSwipe(user, "right");
+		setTimeout(() => set({ swipeFeedback: null }), 1500); // show 'liked' message for 1.5 sec
+	},
+
+	// the card leaves the deck right away, the swipe itself is sent in a batch
+	queueSwipe: (user, direction) => {
+		set((state) => ({
+			userProfiles: state.userProfiles.filter((p) => p._id !== user._id),
+		}));
+		pendingSwipes.push({ userId: user._id, direction });
+
+		if (pendingSwipes.length >= SWIPE_BATCH_SIZE) {
+			get().flushSwipes();
+		} else {
+			clearTimeout(swipeFlushTimer);
+			swipeFlushTimer = setTimeout(() => get().flushSwipes(), SWIPE_FLUSH_DELAY_MS);
+		}
+		get().loadMoreUserProfiles();
+	},
+
+	// sends every queued swipe in one request, swipes are kept for the next flush if the network is down
+	flushSwipes: async () => {
+		while (swipeFlushInFlight) await swipeFlushInFlight;
+		clearTimeout(swipeFlushTimer);
+		swipeFlushTimer = null;
+		if (pendingSwipes.length === 0) return;
+
+		const batch = pendingSwipes;
+		pendingSwipes = [];
+
+		swipeFlushInFlight = (async () => {
+			try {
+				const res = await axiosInstance.post("/matches/swipes", { swipes: batch });
+				(res.data?.matches ?? []).forEach((match) => get().addMatch(match));
+			} catch (error) {
+				console.log(error);
+				if (!error.response) {
+					// offline: retry on reconnect, swipes are idempotent on the server
+					pendingSwipes = [...batch, ...pendingSwipes];
+				} else {
+					toast.error("Failed to save your swipes!");
+				}
+			} finally {
+				swipeFlushInFlight = null;
+			}
+		})();
+		await swipeFlushInFlight;
+	},
+
+	addMatch: (newMatch) => {
+		const isDuplicate = get().matches.some((m) => m._id === newMatch._id);
+		if (isDuplicate) return;
+
+		set((state) => ({
+			matches: [...state.matches, newMatch],
+		}));
+		toast.success("You got a new match!");
+	},
+
 	//listen for new matches
 	subscribeToNewMatches: () => {
 		try {
@@ -100,15 +195,7 @@ export const useMatchStore = create((set, get) => ({
 
 			//listening for events from backend called newMatch
 			socket.on("newMatch", (newMatch) => {
-				const currentMatches = get().matches;
-				const isDuplicate = currentMatches.some((m) => m._id === newMatch._id);
-
-				if (!isDuplicate) {
-					set((state) => ({
-						matches: [...state.matches, newMatch],
-					}));
-					toast.success("You got a new match!");
-				}
+				get().addMatch(newMatch);
 			});
 		} catch (error) {
 			console.log(error);
@@ -149,3 +236,11 @@ export const useMatchStore = create((set, get) => ({
 		}
 	},
 }));
+
+// send queued swipes as soon as the connection comes back or the tab is hidden
+if (typeof window !== "undefined") {
+	window.addEventListener("online", () => useMatchStore.getState().flushSwipes());
+	document.addEventListener("visibilitychange", () => {
+		if (document.visibilityState === "hidden") useMatchStore.getState().flushSwipes();
+	});
+}
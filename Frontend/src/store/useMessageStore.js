@@ -4,9 +4,16 @@ import toast from "react-hot-toast";
 import { getSocket } from "../socket/socket.client";
 import { useAuthStore } from "./useAuthStore";
 
+// Messages per history page, older pages load as the chat is scrolled up
+const MESSAGE_PAGE_SIZE = 50;
+
 export const useMessageStore = create((set, get) => ({
-	messages: [], // List of all messages in the current conversation
+	messages: [], // Loaded messages of the current conversation, oldest first
 	loading: true, // Tracks loading state while fetching messages
+	nextBefore: null, // Id to pass as ?before= for the previous page, null once the start is reached
+	loadingOlder: false,
+	activeConversationId: null, // The user whose chat is open
+	inbox: {}, // other user id -> { snippet, lastMessageAt, lastSenderId, unreadCount }
 	isTyping: false,
 	typingTimeout: null,
 
@@ -41,17 +48,76 @@ export const useMessageStore = create((set, get) => ({
 	},
 	getMessages: async (userId) => {
 		try {
-			set({ loading: true, isTyping: false });
-			const res = await axiosInstance.get(`/messages/conversation/${userId}`);
-			set({ messages: res.data.messages });
+			set({
+				loading: true,
+				isTyping: false,
+				nextBefore: null,
+				activeConversationId: userId,
+			});
+			const res = await axiosInstance.get(`/messages/conversation/${userId}`, {
+				params: { limit: MESSAGE_PAGE_SIZE },
+			});
+			set({ messages: res.data.messages, nextBefore: res.data.nextBefore });
+			get().markConversationRead(userId);
 		} catch (error) {
 			console.log(error);
-			set({ messages: [] });
+			set({ messages: [], nextBefore: null });
 		} finally {
 			set({ loading: false });
 		}
 	},
 
+	// Prepends the page of messages just before the oldest one loaded
+	loadOlderMessages: async (userId) => {
+		const { nextBefore, loadingOlder } = get();
+		if (!nextBefore || loadingOlder) return false;
+
+		try {
+			set({ loadingOlder: true });
+			const res = await axiosInstance.get(`/messages/conversation/${userId}`, {
+				params: { before: nextBefore, limit: MESSAGE_PAGE_SIZE },
+			});
+			set((state) => ({
+				messages: [...res.data.messages, ...state.messages],
+				nextBefore: res.data.nextBefore,
+			}));
+			return true;
+		} catch (error) {
+			console.log(error);
+			return false;
+		} finally {
+			set({ loadingOlder: false });
+		}
+	},
+
+	// Last message and unread count per conversation, one row each from the server
+	getInbox: async () => {
+		try {
+			const res = await axiosInstance.get("/messages/inbox");
+			const inbox = {};
+			for (const entry of res.data.conversations) {
+				inbox[entry.otherUserId] = entry;
+			}
+			set({ inbox });
+		} catch (error) {
+			console.log(error);
+		}
+	},
+
+	markConversationRead: async (userId) => {
+		set((state) => {
+			const entry = state.inbox[userId];
+			if (!entry) return {};
+			return { inbox: { ...state.inbox, [userId]: { ...entry, unreadCount: 0 } } };
+		});
+
+		try {
+			await axiosInstance.post(`/messages/conversation/${userId}/read`);
+		} catch (error) {
+			console.log(error);
+		}
+	},
+
 	//these two make it real time
 	subscribeToMessages: () => {
 		try {
@@ -61,8 +127,35 @@ export const useMessageStore = create((set, get) => ({
 					messages: [...state.messages, message],
 					isTyping: false,
 				}));
+
+				// Seen as it arrives, so it must not count as unread
+				const activeId = get().activeConversationId;
+				if (activeId && String(message.senderId) === String(activeId)) {
+					get().markConversationRead(activeId);
+				}
 			});
 
+			// Attachments of a sent message upload in the background, and their thumbnails arrive later
+			const patchAttachment = ({ attachmentId, messageId, ...fields }) => {
+				set((state) => ({
+					messages: state.messages.map((message) =>
+						String(message._id ?? message.id) !== String(messageId)
+							? message
+							: {
+									...message,
+									attachments: (message.attachments || []).map((att) =>
+										String(att._id ?? att.id) === String(attachmentId)
+											? { ...att, ...fields }
+											: att
+									),
+							  }
+					),
+				}));
+			};
+			socket.on("attachmentReady", patchAttachment);
+			socket.on("attachmentFailed", patchAttachment);
+			socket.on("attachmentDerivatives", patchAttachment);
+
 			socket.on("typing", () => {
 				set({ isTyping: true });
 
@@ -83,9 +176,13 @@ export const useMessageStore = create((set, get) => ({
 
 	unsubscribeFromMessages: () => {
 		try {
+			set({ activeConversationId: null });
 			const socket = getSocket();
 			socket.off("newMessage");
 			socket.off("typing");
+			socket.off("attachmentReady");
+			socket.off("attachmentFailed");
+			socket.off("attachmentDerivatives");
 		} catch (error) {
 			console.log("Error unsubscribing from messages: ", error);
 		}